@@ -0,0 +1,62 @@
+package ewm.benchmark;
+
+import ewm.categories.model.Category;
+import ewm.event.model.Event;
+import ewm.event.model.EventLocation;
+import ewm.event.model.EventState;
+import ewm.user.model.User;
+import model.ViewStatsDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Тестовые данные для бенчмарков: события с заполненными связями, как их отдает репозиторий.
+ */
+public final class BenchmarkData {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    private BenchmarkData() {
+    }
+
+    public static List<Event> events(int count) {
+        List<Category> categories = new ArrayList<>();
+        for (long i = 1; i <= 10; i++) {
+            categories.add(new Category(i, "Категория " + i));
+        }
+        List<User> users = new ArrayList<>();
+        for (long i = 1; i <= 50; i++) {
+            users.add(new User(i, "Пользователь " + i, "user" + i + "@mail.ru"));
+        }
+
+        List<Event> events = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            events.add(Event.builder()
+                    .id((long) i)
+                    .title("Событие " + i)
+                    .annotation("Краткое описание события номер " + i + ", достаточно длинное для аннотации")
+                    .description("Полное описание события номер " + i + ". ".repeat(20))
+                    .category(categories.get(i % categories.size()))
+                    .initiator(users.get(i % users.size()))
+                    .createdAt(NOW.minusDays(30).plusMinutes(i))
+                    .eventDate(NOW.plusDays(10).plusHours(i))
+                    .publishedAt(NOW.minusDays(29).plusMinutes(i))
+                    .location(new EventLocation(55.75f + i / 1000f, 37.62f + i / 1000f))
+                    .isPaid(i % 2 == 0)
+                    .participantLimit(i % 3 == 0 ? 0 : 100)
+                    .isRequestModeration(i % 4 != 0)
+                    .state(EventState.PUBLISHED.toString())
+                    .confirmedRequests((long) (i % 50))
+                    .views((long) i * 7)
+                    .build());
+        }
+        return events;
+    }
+
+    public static List<ViewStatsDto> stats(List<Event> events) {
+        return events.stream()
+                .map(event -> new ViewStatsDto("ewm-main-service", "/events/" + event.getId(), event.getViews()))
+                .toList();
+    }
+}
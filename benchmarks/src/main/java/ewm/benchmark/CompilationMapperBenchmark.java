@@ -0,0 +1,41 @@
+package ewm.benchmark;
+
+import ewm.compilation.dto.CompilationResponse;
+import ewm.compilation.mapper.CompilationMapper;
+import ewm.compilation.model.Compilation;
+import ewm.event.dto.EventShortDto;
+import ewm.event.mapper.EventMapper;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompilationMapperBenchmark {
+    @Param({"10", "100"})
+    private int size;
+
+    private final CompilationMapper compilationMapper = Mappers.getMapper(CompilationMapper.class);
+    private Compilation compilation;
+    private Set<EventShortDto> eventDtos;
+
+    @Setup
+    public void setUp() {
+        compilation = Compilation.builder().id(1L).title("Подборка").pinned(true).build();
+        eventDtos = BenchmarkData.events(size).stream()
+                .map(EventMapper.INSTANCE::toShortDto)
+                .collect(Collectors.toSet());
+    }
+
+    @Benchmark
+    public CompilationResponse toDto() {
+        return compilationMapper.toDto(compilation, eventDtos);
+    }
+}
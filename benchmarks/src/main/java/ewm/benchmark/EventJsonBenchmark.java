@@ -0,0 +1,38 @@
+package ewm.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ewm.event.dto.EventFullDto;
+import ewm.event.mapper.EventMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventJsonBenchmark {
+    @Param({"10", "1000"})
+    private int size;
+
+    // Так же ObjectMapper настраивает Spring Boot для ответов контроллеров
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private List<EventFullDto> dtos;
+
+    @Setup
+    public void setUp() {
+        dtos = BenchmarkData.events(size).stream()
+                .map(EventMapper.INSTANCE::toFullDto)
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] writeEventFullDtos() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+}
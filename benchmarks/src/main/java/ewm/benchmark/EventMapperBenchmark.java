@@ -0,0 +1,48 @@
+package ewm.benchmark;
+
+import ewm.event.dto.EventFullDto;
+import ewm.event.dto.EventShortDto;
+import ewm.event.mapper.EventMapper;
+import ewm.event.model.Event;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventMapperBenchmark {
+    @Param({"10", "1000"})
+    private int size;
+
+    private final EventMapper eventMapper = EventMapper.INSTANCE;
+    private List<Event> events;
+
+    @Setup
+    public void setUp() {
+        events = BenchmarkData.events(size);
+    }
+
+    @Benchmark
+    public List<EventFullDto> toFullDto() {
+        List<EventFullDto> result = new ArrayList<>(events.size());
+        for (Event event : events) {
+            result.add(eventMapper.toFullDto(event));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<EventShortDto> toShortDto() {
+        List<EventShortDto> result = new ArrayList<>(events.size());
+        for (Event event : events) {
+            result.add(eventMapper.toShortDto(event));
+        }
+        return result;
+    }
+}
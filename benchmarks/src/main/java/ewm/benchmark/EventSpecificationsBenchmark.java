@@ -0,0 +1,73 @@
+package ewm.benchmark;
+
+import ewm.categories.model.Category;
+import ewm.event.model.Event;
+import ewm.event.repository.specification.EventSpecifications;
+import ewm.user.model.User;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Построение предиката публичного поиска событий так же, как его собирает EventServiceImpl.
+ * SessionFactory поднимается на H2 в памяти: замеряется только работа Criteria API, без SQL.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventSpecificationsBenchmark {
+    @Param({"", "концерт джаз"})
+    private String text;
+
+    private SessionFactory sessionFactory;
+    private CriteriaBuilder criteriaBuilder;
+    private LocalDateTime rangeStart;
+    private LocalDateTime rangeEnd;
+
+    @Setup
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Event.class)
+                .addAnnotatedClass(Category.class)
+                .addAnnotatedClass(User.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:benchmarks")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "none")
+                .buildSessionFactory();
+        criteriaBuilder = sessionFactory.getCriteriaBuilder();
+        rangeStart = LocalDateTime.of(2024, 6, 1, 0, 0);
+        rangeEnd = rangeStart.plusMonths(1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public Predicate publicSearch() {
+        Specification<Event> spec = Specification.where(EventSpecifications.isPublished())
+                .and(EventSpecifications.containsText(text))
+                .and(EventSpecifications.hasCategories(List.of(1L, 2L, 3L)))
+                .and(EventSpecifications.isPaid(true))
+                .and(EventSpecifications.startsAfter(rangeStart))
+                .and(EventSpecifications.endsBefore(rangeEnd))
+                .and(EventSpecifications.hasAvailableSlots());
+
+        CriteriaQuery<Event> query = criteriaBuilder.createQuery(Event.class);
+        Root<Event> root = query.from(Event.class);
+        return spec.toPredicate(root, query, criteriaBuilder);
+    }
+}
@@ -0,0 +1,51 @@
+package ewm.benchmark;
+
+import ewm.event.dto.EventShortDto;
+import ewm.event.mapper.EventMapper;
+import ewm.event.model.Event;
+import ewm.event.service.EventStatsService;
+import ewm.event.service.EventViewsCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventStatsServiceBenchmark {
+    @Param({"10", "1000"})
+    private int size;
+
+    // false - каждый вызов идет в (заглушку) сервиса статистики, true - все просмотры берутся из кэша
+    @Param({"false", "true"})
+    private boolean cached;
+
+    private final EventMapper eventMapper = EventMapper.INSTANCE;
+    private List<Event> events;
+    private EventViewsCache eventViewsCache;
+    private EventStatsService eventStatsService;
+
+    @Setup
+    public void setUp() {
+        events = BenchmarkData.events(size);
+        eventViewsCache = new EventViewsCache(cached, Duration.ofHours(1), Duration.ZERO, 10_000, 1000, false);
+        eventStatsService = new EventStatsService(new StubStatsClient(BenchmarkData.stats(events)), eventViewsCache,
+                Duration.ofSeconds(5), 1, 16, false);
+    }
+
+    @TearDown
+    public void tearDown() {
+        eventViewsCache.shutdown();
+        eventStatsService.shutdown();
+    }
+
+    @Benchmark
+    public List<EventShortDto> enrichEventsShortDtoBatch() {
+        return eventStatsService.enrichEventsShortDtoBatch(events, eventMapper);
+    }
+}
@@ -0,0 +1,103 @@
+package ewm.benchmark;
+
+import client.HttpTransportType;
+import client.StatsClient;
+import client.StatsClientProperties;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import model.ViewStatsDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Запрос статистики через настоящий HTTP-стек StatsClient к встроенному серверу, который отдает готовый ответ.
+ * Потоков больше, чем пул keep-alive HttpURLConnection по умолчанию (5 на хост), поэтому SIMPLE
+ * часть запросов выполняет на новых соединениях.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class StatsClientTransportBenchmark {
+    @Param({"SIMPLE", "JDK", "APACHE"})
+    private HttpTransportType transport;
+
+    // Пусто - встроенный сервер; иначе адрес запущенного stats-server, например -p statsUrl=http://localhost:9090
+    @Param({""})
+    private String statsUrl;
+
+    private final LocalDateTime start = LocalDateTime.now().minusDays(1);
+    private final LocalDateTime end = LocalDateTime.now();
+    private final List<String> uris = IntStream.range(0, 10).mapToObj(id -> "/events/" + id).toList();
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private StatsClient statsClient;
+
+    @Setup
+    public void setUp() throws IOException {
+        StatsClientProperties properties = new StatsClientProperties();
+        properties.getTransport().setType(transport);
+        String serverUrl = statsUrl.isEmpty() ? startServer() : statsUrl;
+        statsClient = new StatsClient(RestClient.builder(), serverUrl, properties, new SimpleMeterRegistry());
+    }
+
+    @TearDown
+    public void tearDown() {
+        statsClient.shutdown();
+        if (server != null) {
+            server.stop(0);
+            serverExecutor.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public List<ViewStatsDto> requestStats() {
+        return statsClient.requestStats(start, end, uris, true);
+    }
+
+    private String startServer() throws IOException {
+        byte[] body = statsJson(uris);
+        // Без TCP_NODELAY встроенный сервер ждет delayed ACK клиента, и все транспорты упираются в ~40 мс
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        serverExecutor = Executors.newFixedThreadPool(16);
+        server.setExecutor(serverExecutor);
+        server.createContext("/stats", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    private static byte[] statsJson(List<String> uris) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < uris.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"app\":\"ewm-main-service\",\"uri\":\"").append(uris.get(i))
+                    .append("\",\"hits\":").append(i + 1).append('}');
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,37 @@
+package ewm.benchmark;
+
+import client.StatsClient;
+import client.StatsClientProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import model.ViewStatsDto;
+import org.springframework.web.client.RestClient;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Клиент статистики без сети: отдает заранее подготовленный ответ, отфильтрованный по uris,
+ * чтобы в замер попадала только работа main-service.
+ */
+public class StubStatsClient extends StatsClient {
+    private final List<ViewStatsDto> stats;
+
+    public StubStatsClient(List<ViewStatsDto> stats) {
+        super(RestClient.builder(), "http://localhost:9090", new StatsClientProperties(), new SimpleMeterRegistry());
+        this.stats = stats;
+    }
+
+    @Override
+    public List<ViewStatsDto> requestStats(LocalDateTime start, LocalDateTime end,
+                                           List<String> uris, Boolean unique) {
+        if (uris == null) {
+            return stats;
+        }
+        Set<String> requested = new HashSet<>(uris);
+        return stats.stream()
+                .filter(stat -> requested.contains(stat.getUri()))
+                .toList();
+    }
+}
@@ -4,12 +4,14 @@ import ewm.comment.dto.CommentDto;
 import ewm.comment.dto.NewCommentDto;
 import ewm.comment.dto.UpdateCommentDto;
 import ewm.comment.service.CommentService;
+import ewm.util.pagination.PaginationUtils;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -50,12 +52,14 @@ public class PrivateCommentController {
     }
 
     @GetMapping
-    public List<CommentDto> getUserComments(
+    public ResponseEntity<List<CommentDto>> getUserComments(
             @PathVariable Long userId,
             @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-            @RequestParam(defaultValue = "10") @Positive Integer size) {
+            @RequestParam(defaultValue = "10") @Positive Integer size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
 
         int page = from / size;
-        return commentService.getCommentsByUser(userId, PageRequest.of(page, size));
+        return PaginationUtils.toResponse(
+                commentService.getCommentsByUser(userId, PageRequest.of(page, size), withTotal));
     }
 }
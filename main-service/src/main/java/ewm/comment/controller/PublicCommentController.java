@@ -2,10 +2,12 @@ package ewm.comment.controller;
 
 import ewm.comment.dto.CommentDto;
 import ewm.comment.service.CommentService;
+import ewm.util.pagination.PaginationUtils;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -18,13 +20,15 @@ public class PublicCommentController {
     private final CommentService commentService;
 
     @GetMapping("/event/{eventId}")
-    public List<CommentDto> getCommentsByEvent(
+    public ResponseEntity<List<CommentDto>> getCommentsByEvent(
             @PathVariable Long eventId,
             @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-            @RequestParam(defaultValue = "10") @Positive Integer size) {
+            @RequestParam(defaultValue = "10") @Positive Integer size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
 
         int page = from / size;
-        return commentService.getCommentsByEvent(eventId, PageRequest.of(page, size));
+        return PaginationUtils.toResponse(
+                commentService.getCommentsByEvent(eventId, PageRequest.of(page, size), withTotal));
     }
 
     @GetMapping("/{commentId}")
@@ -4,6 +4,7 @@ import ewm.comment.dto.CommentDto;
 import ewm.comment.dto.NewCommentDto;
 import ewm.comment.dto.UpdateCommentDto;
 import ewm.comment.model.Comment;
+import ewm.comment.repository.CommentProjection;
 import ewm.event.model.Event;
 import ewm.user.model.User;
 import org.mapstruct.*;
@@ -22,6 +23,10 @@ public interface CommentMapper {
     @Mapping(target = "eventId", source = "event.id")
     CommentDto toDto(Comment comment);
 
+    @Mapping(target = "author.id", source = "authorId")
+    @Mapping(target = "author.name", source = "authorName")
+    CommentDto toDto(CommentProjection comment);
+
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "author", ignore = true)
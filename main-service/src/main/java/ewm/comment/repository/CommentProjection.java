@@ -0,0 +1,21 @@
+package ewm.comment.repository;
+
+import java.time.LocalDateTime;
+
+public interface CommentProjection {
+    Long getId();
+
+    String getText();
+
+    Long getAuthorId();
+
+    String getAuthorName();
+
+    Long getEventId();
+
+    LocalDateTime getCreatedDate();
+
+    LocalDateTime getUpdatedDate();
+
+    Boolean getIsEdited();
+}
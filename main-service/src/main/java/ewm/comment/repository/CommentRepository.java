@@ -1,8 +1,8 @@
 package ewm.comment.repository;
 
 import ewm.comment.model.Comment;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -12,35 +12,37 @@ import java.util.Optional;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
-    @Query("SELECT c FROM Comment c " +
-            "LEFT JOIN FETCH c.author " +
-            "LEFT JOIN FETCH c.event " +
-            "WHERE c.author.id = :authorId AND c.isDeleted = false " +
+    @Query("SELECT c.id AS id, c.text AS text, a.id AS authorId, a.name AS authorName, c.event.id AS eventId, " +
+            "c.createdDate AS createdDate, c.updatedDate AS updatedDate, c.isEdited AS isEdited " +
+            "FROM Comment c JOIN c.author a " +
+            "WHERE a.id = :authorId AND c.isDeleted = false " +
             "ORDER BY c.createdDate DESC")
-    Page<Comment> findByAuthorIdAndIsDeletedFalse(@Param("authorId") Long authorId, Pageable pageable);
+    Slice<CommentProjection> findByAuthorIdAndIsDeletedFalse(@Param("authorId") Long authorId, Pageable pageable);
 
     @Query("SELECT c FROM Comment c " +
             "LEFT JOIN FETCH c.author " +
-            "LEFT JOIN FETCH c.event " +
             "WHERE c.id = :id AND c.author.id = :authorId")
     Optional<Comment> findByIdAndAuthorId(@Param("id") Long id, @Param("authorId") Long authorId);
 
-    @Query("SELECT c FROM Comment c " +
-            "LEFT JOIN FETCH c.author " +
-            "LEFT JOIN FETCH c.event " +
+    @Query("SELECT c.id AS id, c.text AS text, a.id AS authorId, a.name AS authorName, c.event.id AS eventId, " +
+            "c.createdDate AS createdDate, c.updatedDate AS updatedDate, c.isEdited AS isEdited " +
+            "FROM Comment c JOIN c.author a " +
             "WHERE c.event.id IN :eventIds AND c.isDeleted = false")
-    List<Comment> findByEventIds(@Param("eventIds") List<Long> eventIds);
+    List<CommentProjection> findByEventIds(@Param("eventIds") List<Long> eventIds);
 
     @Query("SELECT c FROM Comment c " +
             "LEFT JOIN FETCH c.author " +
-            "LEFT JOIN FETCH c.event " +
             "WHERE c.id = :id AND c.isDeleted = false")
     Optional<Comment> findByIdNotDeleted(@Param("id") Long id);
 
-    @Query("SELECT c FROM Comment c " +
-            "LEFT JOIN FETCH c.author " +
-            "LEFT JOIN FETCH c.event " +
+    @Query("SELECT c.id AS id, c.text AS text, a.id AS authorId, a.name AS authorName, c.event.id AS eventId, " +
+            "c.createdDate AS createdDate, c.updatedDate AS updatedDate, c.isEdited AS isEdited " +
+            "FROM Comment c JOIN c.author a " +
             "WHERE c.event.id = :eventId AND c.isDeleted = false " +
             "ORDER BY c.createdDate DESC")
-    Page<Comment> findByEventIdNotDeleted(@Param("eventId") Long eventId, Pageable pageable);
+    Slice<CommentProjection> findByEventIdNotDeleted(@Param("eventId") Long eventId, Pageable pageable);
+
+    long countByAuthorIdAndIsDeletedFalse(Long authorId);
+
+    long countByEventIdAndIsDeletedFalse(Long eventId);
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import ewm.comment.dto.CommentDto;
 import ewm.comment.dto.NewCommentDto;
 import ewm.comment.dto.UpdateCommentDto;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
@@ -16,9 +17,9 @@ public interface CommentService {
 
     void deleteCommentByAdmin(Long commentId);
 
-    List<CommentDto> getCommentsByEvent(Long eventId, Pageable pageable);
+    Slice<CommentDto> getCommentsByEvent(Long eventId, Pageable pageable, boolean withTotal);
 
-    List<CommentDto> getCommentsByUser(Long userId, Pageable pageable);
+    Slice<CommentDto> getCommentsByUser(Long userId, Pageable pageable, boolean withTotal);
 
     CommentDto getCommentById(Long commentId);
 
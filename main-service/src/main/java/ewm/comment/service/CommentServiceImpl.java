@@ -5,6 +5,7 @@ import ewm.comment.dto.NewCommentDto;
 import ewm.comment.dto.UpdateCommentDto;
 import ewm.comment.mapper.CommentMapper;
 import ewm.comment.model.Comment;
+import ewm.comment.repository.CommentProjection;
 import ewm.comment.repository.CommentRepository;
 import ewm.event.model.Event;
 import ewm.event.repository.EventRepository;
@@ -12,9 +13,11 @@ import ewm.exception.ConflictException;
 import ewm.exception.NotFoundException;
 import ewm.user.model.User;
 import ewm.user.service.UserService;
+import ewm.util.pagination.PaginationUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -121,7 +124,7 @@ public class CommentServiceImpl implements CommentService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<CommentDto> getCommentsByEvent(Long eventId, Pageable pageable) {
+    public Slice<CommentDto> getCommentsByEvent(Long eventId, Pageable pageable, boolean withTotal) {
         log.debug("Получение комментариев для события: eventId={}, page={}, size={}",
                 eventId, pageable.getPageNumber(), pageable.getPageSize());
 
@@ -130,24 +133,20 @@ public class CommentServiceImpl implements CommentService {
             throw new NotFoundException("Событие не найдено");
         }
 
-        return commentRepository.findByEventIdNotDeleted(eventId, pageable)
-                .stream()
-                .map(commentMapper::toDto)
-                .collect(Collectors.toList());
+        return PaginationUtils.withTotal(commentRepository.findByEventIdNotDeleted(eventId, pageable), withTotal,
+                () -> commentRepository.countByEventIdAndIsDeletedFalse(eventId)).map(commentMapper::toDto);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<CommentDto> getCommentsByUser(Long userId, Pageable pageable) {
+    public Slice<CommentDto> getCommentsByUser(Long userId, Pageable pageable, boolean withTotal) {
         log.debug("Получение комментариев пользователя: userId={}, page={}, size={}",
                 userId, pageable.getPageNumber(), pageable.getPageSize());
 
         userService.getUserById(userId);
 
-        return commentRepository.findByAuthorIdAndIsDeletedFalse(userId, pageable)
-                .stream()
-                .map(commentMapper::toDto)
-                .collect(Collectors.toList());
+        return PaginationUtils.withTotal(commentRepository.findByAuthorIdAndIsDeletedFalse(userId, pageable), withTotal,
+                () -> commentRepository.countByAuthorIdAndIsDeletedFalse(userId)).map(commentMapper::toDto);
     }
 
     @Override
@@ -170,7 +169,7 @@ public class CommentServiceImpl implements CommentService {
     public List<CommentDto> getCommentsForEvents(List<Long> eventIds) {
         log.debug("Получение комментариев для списка событий: eventsCount={}", eventIds.size());
 
-        List<Comment> comments = commentRepository.findByEventIds(eventIds);
+        List<CommentProjection> comments = commentRepository.findByEventIds(eventIds);
         List<CommentDto> result = comments.stream()
                 .map(commentMapper::toDto)
                 .collect(Collectors.toList());
@@ -1,6 +1,7 @@
 package ewm.compilation.controller;
 
 import ewm.compilation.dto.CompilationResponse;
+import ewm.compilation.service.CompilationResponseCache;
 import ewm.compilation.service.CompilationService;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
@@ -16,6 +17,7 @@ import java.util.List;
 public class PublicCompilationController {
 
     private final CompilationService compilationService;
+    private final CompilationResponseCache compilationResponseCache;
 
     @GetMapping
     public List<CompilationResponse> getCompilations(
@@ -24,11 +26,13 @@ public class PublicCompilationController {
             @RequestParam(defaultValue = "10") @PositiveOrZero int size) {
 
         Pageable pageable = PageRequest.of(from / size, size);
-        return compilationService.getCompilations(pinned, pageable);
+        return compilationResponseCache.getCompilations(pinned, pageable.getPageNumber(), pageable.getPageSize(),
+                () -> compilationService.getCompilations(pinned, pageable));
     }
 
     @GetMapping("/{compId}")
     public CompilationResponse getCompilation(@PathVariable Long compId) {
-        return compilationService.getCompilationById(compId);
+        return compilationResponseCache.getCompilation(compId,
+                () -> compilationService.getCompilationById(compId));
     }
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package ewm.compilation.repository;
+
+import ewm.event.repository.EventShortProjection;
+
+public interface CompilationEventProjection extends EventShortProjection {
+    Long getCompilationId();
+}
@@ -1,19 +1,32 @@
 package ewm.compilation.repository;
 
 import ewm.compilation.model.Compilation;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.lang.NonNull;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface CompilationRepository extends JpaRepository<Compilation, Long>, JpaSpecificationExecutor<Compilation> {
 
-    Page<Compilation> findByPinned(Boolean pinned, Pageable pageable);
-
     Optional<Compilation> findById(@NonNull Long id);
 
     boolean existsById(@NonNull Long compId);
-}
\ No newline at end of file
+
+    // События подборок читаются отдельно проекцией, поэтому LIMIT применяется в БД
+    @Query("SELECT c FROM Compilation c WHERE :pinned IS NULL OR c.pinned = :pinned ORDER BY c.id")
+    List<Compilation> findAllByPinned(@Param("pinned") Boolean pinned, Pageable pageable);
+
+    @Query("SELECT c.id AS compilationId, e.id AS id, e.title AS title, e.annotation AS annotation, " +
+            "e.eventDate AS eventDate, e.createdAt AS createdAt, e.isPaid AS paid, " +
+            "e.confirmedRequests AS confirmedRequests, cat.id AS categoryId, cat.name AS categoryName, " +
+            "i.id AS initiatorId, i.name AS initiatorName " +
+            "FROM Compilation c JOIN c.events e LEFT JOIN e.category cat LEFT JOIN e.initiator i " +
+            "WHERE c.id IN :compIds")
+    List<CompilationEventProjection> findEventsByCompilationIds(@Param("compIds") Collection<Long> compIds);
+}
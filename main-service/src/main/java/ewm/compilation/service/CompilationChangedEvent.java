@@ -0,0 +1,4 @@
+package ewm.compilation.service;
+
+public record CompilationChangedEvent(Long compId) {
+}
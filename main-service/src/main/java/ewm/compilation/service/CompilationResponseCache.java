@@ -0,0 +1,162 @@
+package ewm.compilation.service;
+
+import ewm.compilation.dto.CompilationResponse;
+import ewm.event.dto.EventShortDto;
+import ewm.event.service.EventUpdatedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Кэш ответов публичного API подборок. Записи сбрасываются после коммита изменений подборок
+ * и входящих в них событий; просмотры внутри ответа могут отставать не больше чем на ttl.
+ * Закэшированные DTO общие для всех запросов, поэтому изменять их нельзя.
+ */
+@Component
+@Slf4j
+public class CompilationResponseCache {
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final int maxSize;
+
+    private final Map<String, Entry> entries;
+    // Загрузки в процессе; сброс помечает их, чтобы они не положили в кэш данные, прочитанные до коммита
+    private final Set<PendingLoad> pending = ConcurrentHashMap.newKeySet();
+    // Не synchronized: под виртуальными потоками ожидание монитора занимает поток-носитель
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public CompilationResponseCache(@Value("${ewm.compilations-cache.enabled:true}") boolean enabled,
+                                    @Value("${ewm.compilations-cache.ttl:10s}") Duration ttl,
+                                    @Value("${ewm.compilations-cache.max-size:1000}") int maxSize) {
+        this.enabled = enabled;
+        this.ttlNanos = ttl.toNanos();
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > CompilationResponseCache.this.maxSize;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<CompilationResponse> getCompilations(Boolean pinned, int page, int size,
+                                                     Supplier<List<CompilationResponse>> loader) {
+        return (List<CompilationResponse>) get("page:" + pinned + ":" + page + ":" + size, () -> {
+            List<CompilationResponse> compilations = List.copyOf(loader.get());
+            return new Loaded(compilations, compilations.stream()
+                    .flatMap(compilation -> eventIds(compilation).stream())
+                    .collect(Collectors.toSet()));
+        });
+    }
+
+    public CompilationResponse getCompilation(Long compId, Supplier<CompilationResponse> loader) {
+        return (CompilationResponse) get("compilation:" + compId, () -> {
+            CompilationResponse compilation = loader.get();
+            return new Loaded(compilation, eventIds(compilation));
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCompilationChanged(CompilationChangedEvent event) {
+        // Изменение одной подборки сдвигает страницы, поэтому сбрасываем все
+        lock.lock();
+        try {
+            pending.forEach(PendingLoad::markStale);
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+        log.debug("Кэш подборок сброшен после изменения подборки ID={}", event.compId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventUpdated(EventUpdatedEvent event) {
+        lock.lock();
+        try {
+            // Состав событий загрузки неизвестен до ее окончания, поэтому запоминаем id и сверяем в конце
+            pending.forEach(load -> load.eventUpdated(event.eventId()));
+            entries.values().removeIf(entry -> entry.eventIds().contains(event.eventId()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Object get(String key, Supplier<Loaded> loader) {
+        if (enabled) {
+            lock.lock();
+            try {
+                Entry entry = entries.get(key);
+                if (entry != null && System.nanoTime() - entry.loadedAt() < ttlNanos) {
+                    return entry.response();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        if (!enabled) {
+            return loader.get().response();
+        }
+
+        PendingLoad load = new PendingLoad();
+        pending.add(load);
+        try {
+            long loadedAt = System.nanoTime();
+            Loaded loaded = loader.get();
+
+            // Ответ, задетый сбросом во время загрузки, мог прочитать старые данные - отдаем, но не кэшируем
+            lock.lock();
+            try {
+                if (!load.isInvalidated(loaded.eventIds())) {
+                    entries.put(key, new Entry(loaded.response(), loaded.eventIds(), loadedAt));
+                }
+            } finally {
+                lock.unlock();
+            }
+            return loaded.response();
+        } finally {
+            pending.remove(load);
+        }
+    }
+
+    private static Set<Long> eventIds(CompilationResponse compilation) {
+        if (compilation.getEvents() == null) {
+            return Set.of();
+        }
+        return compilation.getEvents().stream()
+                .map(EventShortDto::getId)
+                .collect(Collectors.toSet());
+    }
+
+    private record Loaded(Object response, Set<Long> eventIds) {
+    }
+
+    private static final class PendingLoad {
+        private final Set<Long> updatedEventIds = ConcurrentHashMap.newKeySet();
+        private volatile boolean stale;
+
+        void markStale() {
+            stale = true;
+        }
+
+        void eventUpdated(Long eventId) {
+            updatedEventIds.add(eventId);
+        }
+
+        boolean isInvalidated(Set<Long> eventIds) {
+            return stale || updatedEventIds.stream().anyMatch(eventIds::contains);
+        }
+    }
+
+    private record Entry(Object response, Set<Long> eventIds, long loadedAt) {
+    }
+}
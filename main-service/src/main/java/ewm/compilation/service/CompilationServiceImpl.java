@@ -5,24 +5,26 @@ import ewm.compilation.dto.NewCompilationRequest;
 import ewm.compilation.dto.UpdateCompilationRequest;
 import ewm.compilation.mapper.CompilationMapper;
 import ewm.compilation.model.Compilation;
+import ewm.compilation.repository.CompilationEventProjection;
 import ewm.compilation.repository.CompilationRepository;
+import ewm.event.dto.EventShortDto;
+import ewm.event.mapper.EventMapper;
 import ewm.event.model.Event;
 import ewm.event.repository.EventRepository;
+import ewm.event.service.EventStatsService;
 import ewm.exception.ConflictException;
 import ewm.exception.NotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,6 +35,9 @@ public class CompilationServiceImpl implements CompilationService {
     private final CompilationRepository compilationRepository;
     private final EventRepository eventRepository;
     private final CompilationMapper compilationMapper;
+    private final EventMapper eventMapper;
+    private final EventStatsService eventStatsService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -57,10 +62,12 @@ public class CompilationServiceImpl implements CompilationService {
 
         try {
             Compilation savedCompilation = compilationRepository.save(compilation);
+            eventPublisher.publishEvent(new CompilationChangedEvent(savedCompilation.getId()));
+            CompilationResponse response = toResponse(savedCompilation);
             log.info("Создана новая компиляция: ID={}, title={}, событий={}",
-                    savedCompilation.getId(), savedCompilation.getTitle(), savedCompilation.getEvents().size());
+                    savedCompilation.getId(), savedCompilation.getTitle(), response.getEvents().size());
 
-            return compilationMapper.toDto(savedCompilation);
+            return response;
         } catch (DataIntegrityViolationException e) {
             log.warn("Попытка создания компиляции с существующим названием: {}", request.getTitle());
             throw new ConflictException("Компиляция с названием уже существует: " + request.getTitle());
@@ -106,10 +113,12 @@ public class CompilationServiceImpl implements CompilationService {
 
         try {
             Compilation updatedCompilation = compilationRepository.save(compilation);
+            eventPublisher.publishEvent(new CompilationChangedEvent(compId));
+            CompilationResponse response = toResponse(updatedCompilation);
             log.info("Компиляция обновлена: ID={}, title={}, событий={}",
-                    compId, updatedCompilation.getTitle(), updatedCompilation.getEvents().size());
+                    compId, updatedCompilation.getTitle(), response.getEvents().size());
 
-            return compilationMapper.toDto(updatedCompilation);
+            return response;
         } catch (DataIntegrityViolationException e) {
             log.warn("Попытка обновления на существующее название: {}", request.getTitle());
             throw new ConflictException("Компиляция с названием уже существует: " + request.getTitle());
@@ -127,34 +136,51 @@ public class CompilationServiceImpl implements CompilationService {
         }
 
         compilationRepository.deleteById(compId);
+        eventPublisher.publishEvent(new CompilationChangedEvent(compId));
         log.info("Компиляция удалена: ID={}", compId);
     }
 
     @Override
     public List<CompilationResponse> getCompilations(Boolean pinned, Pageable pageable) {
-        Pageable sortedPageable = PageRequest.of(
-                pageable.getPageNumber(),
-                pageable.getPageSize(),
-                Sort.by("id").ascending()
-        );
+        List<Compilation> compilations = compilationRepository.findAllByPinned(pinned,
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
 
-        Page<Compilation> compilationsPage;
-
-        if (pinned != null) {
-            compilationsPage = compilationRepository.findByPinned(pinned, sortedPageable);
-        } else {
-            compilationsPage = compilationRepository.findAll(sortedPageable);
-        }
-
-        return compilationsPage.getContent().stream()
-                .map(compilationMapper::toDto)
-                .collect(Collectors.toList());
+        return toResponses(compilations);
     }
 
     @Override
     public CompilationResponse getCompilationById(Long compId) {
         Compilation compilation = compilationRepository.findById(compId)
                 .orElseThrow(() -> new NotFoundException("Компиляция с идентификатором не найдена: " + compId));
-        return compilationMapper.toDto(compilation);
+        return toResponse(compilation);
+    }
+
+    private CompilationResponse toResponse(Compilation compilation) {
+        return toResponses(List.of(compilation)).get(0);
+    }
+
+    // События всех подборок страницы читаются одним запросом, просмотры - одним вызовом сервиса статистики
+    private List<CompilationResponse> toResponses(List<Compilation> compilations) {
+        if (compilations.isEmpty()) {
+            return List.of();
+        }
+
+        List<CompilationEventProjection> compilationEvents = compilationRepository.findEventsByCompilationIds(
+                compilations.stream().map(Compilation::getId).toList());
+
+        Map<Long, CompilationEventProjection> events = new LinkedHashMap<>();
+        compilationEvents.forEach(event -> events.putIfAbsent(event.getId(), event));
+        Map<Long, EventShortDto> eventDtos = eventStatsService
+                .enrichShortProjections(new ArrayList<>(events.values()), eventMapper).stream()
+                .collect(Collectors.toMap(EventShortDto::getId, Function.identity()));
+
+        Map<Long, Set<EventShortDto>> eventDtosByCompilation = compilationEvents.stream()
+                .collect(Collectors.groupingBy(CompilationEventProjection::getCompilationId,
+                        Collectors.mapping(event -> eventDtos.get(event.getId()), Collectors.toSet())));
+
+        return compilations.stream()
+                .map(compilation -> compilationMapper.toDto(compilation,
+                        eventDtosByCompilation.getOrDefault(compilation.getId(), new HashSet<>())))
+                .collect(Collectors.toList());
     }
 }
\ No newline at end of file
@@ -1,12 +1,15 @@
 package ewm.event.controller;
 
 import ewm.event.dto.AdminEventSearchRequest;
+import ewm.event.dto.CursorPage;
 import ewm.event.dto.EventFullDto;
 import ewm.event.dto.UpdateEventAdminRequest;
 import ewm.event.service.AdminEventService;
+import ewm.util.pagination.PaginationUtils;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -19,14 +22,20 @@ public class AdminEventController {
     private final AdminEventService adminEventService;
 
     @GetMapping
-    public List<EventFullDto> getEvents(@ModelAttribute @Valid AdminEventSearchRequest request) {
+    public ResponseEntity<List<EventFullDto>> getEvents(@ModelAttribute @Valid AdminEventSearchRequest request) {
         int size = request.getSize() != null ? Math.max(1, request.getSize()) : 10;
+
+        if (request.getCursor() != null) {
+            CursorPage<EventFullDto> events = adminEventService.getEventsByCursor(request, size);
+            return events.toResponse();
+        }
+
         int from = request.getFrom() != null ? request.getFrom() : 0;
         int page = from / size;
 
         PageRequest pageRequest = PageRequest.of(page, size);
 
-        return adminEventService.getEvents(request, pageRequest);
+        return PaginationUtils.toResponse(adminEventService.getEvents(request, pageRequest));
     }
 
     @PatchMapping("/{eventId}")
@@ -9,6 +9,7 @@ import ewm.participationRequest.service.ParticipationRequestService;
 import ewm.participationRequest.dto.EventRequestStatusUpdateRequest;
 import ewm.participationRequest.dto.EventRequestStatusUpdateResult;
 import ewm.participationRequest.dto.ParticipationRequestDto;
+import ewm.util.pagination.PaginationUtils;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
@@ -17,6 +18,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
@@ -31,11 +33,12 @@ public class PrivateEventController {
     private final ParticipationRequestService requestService;
 
     @GetMapping("/{userId}/events")
-    public List<EventShortDto> getEvents(@PathVariable("userId") Long userId,
-                                         @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                         @RequestParam(defaultValue = "10") @Positive Integer size) {
+    public ResponseEntity<List<EventShortDto>> getEvents(@PathVariable("userId") Long userId,
+                                                         @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+                                                         @RequestParam(defaultValue = "10") @Positive Integer size,
+                                                         @RequestParam(defaultValue = "false") boolean withTotal) {
         Pageable pageable = PageRequest.of(from / size, size);
-        return eventService.getEvents(userId, pageable);
+        return PaginationUtils.toResponse(eventService.getEvents(userId, pageable, withTotal));
     }
 
     @PostMapping("/{userId}/events")
@@ -1,9 +1,11 @@
 package ewm.event.controller;
 
+import ewm.event.dto.CursorPage;
 import ewm.event.dto.EventFullDto;
 import ewm.event.dto.EventShortDto;
 import ewm.event.dto.PublicEventSearchRequest;
 import ewm.event.service.EventService;
+import ewm.util.pagination.PaginationUtils;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -24,12 +26,19 @@ public class PublicEventController {
     public ResponseEntity<List<EventShortDto>> getEvents(@ModelAttribute @Valid PublicEventSearchRequest requestParams,
                                          HttpServletRequest request) {
         int size = requestParams.getSize() != null ? Math.max(1, requestParams.getSize()) : 10;
+
+        if (requestParams.getCursor() != null) {
+            CursorPage<EventShortDto> events = eventService.getPublicEventsByCursor(requestParams, size,
+                    request.getRemoteAddr());
+            return events.toResponse();
+        }
+
         int from = requestParams.getFrom() != null ? requestParams.getFrom() : 0;
         int page = from / size;
 
         PageRequest pageRequest = PageRequest.of(page, size);
-        List<EventShortDto> events = eventService.getPublicEvents(requestParams, pageRequest, request.getRemoteAddr());
-        return ResponseEntity.ok(events);
+        return PaginationUtils.toResponse(
+                eventService.getPublicEvents(requestParams, pageRequest, request.getRemoteAddr()));
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,23 @@
+package ewm.event.dto;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * Страница результатов при постраничном выводе по курсору.
+ *
+ * @param nextCursor курсор следующей страницы или null, если страница последняя
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    // Тело ответа остается списком, как и при выводе по from/size, курсор передается заголовком
+    public ResponseEntity<List<T>> toResponse() {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return response.body(items);
+    }
+}
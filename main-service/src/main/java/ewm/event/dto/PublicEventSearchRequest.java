@@ -43,4 +43,10 @@ public class PublicEventSearchRequest {
 
     @Builder.Default
     private Integer size = 10;
+
+    // Посчитать общее количество и вернуть его в заголовке X-Total-Count
+    private Boolean withTotal;
+
+    // Курсор постраничного вывода; если передан (в т.ч. пустой), from игнорируется
+    private String cursor;
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import ewm.categories.model.Category;
 import ewm.event.dto.*;
 import ewm.event.model.Event;
 import ewm.event.model.EventLocation;
+import ewm.event.repository.EventShortProjection;
 import ewm.user.dto.UserShortDto;
 import ewm.user.model.User;
 import org.mapstruct.*;
@@ -30,11 +31,17 @@ public interface EventMapper {
 
     @Mapping(target = "category", source = "category", qualifiedByName = "categoryToDto")
     @Mapping(target = "initiator", source = "initiator", qualifiedByName = "userToShortDto")
-    @Mapping(target = "confirmedRequests", ignore = true)
     @Mapping(target = "paid", source = "isPaid")
     @Mapping(target = "views", ignore = true)
     EventShortDto toShortDto(Event event);
 
+    @Mapping(target = "category.id", source = "categoryId")
+    @Mapping(target = "category.name", source = "categoryName")
+    @Mapping(target = "initiator.id", source = "initiatorId")
+    @Mapping(target = "initiator.name", source = "initiatorName")
+    @Mapping(target = "views", ignore = true)
+    EventShortDto toShortDto(EventShortProjection event);
+
     @Mapping(target = "annotation", source = "annotation")
     @Mapping(target = "description", source = "description")
     @Mapping(target = "eventDate", source = "eventDate")
@@ -49,7 +56,6 @@ public interface EventMapper {
     @Mapping(target = "location", source = "location", qualifiedByName = "eventLocationToLocationDto")
     @Mapping(target = "category", source = "category", qualifiedByName = "categoryToDto")
     @Mapping(target = "initiator", source = "initiator", qualifiedByName = "userToShortDto")
-    @Mapping(target = "confirmedRequests", ignore = true)
     @Mapping(target = "views", ignore = true)
     EventFullDto toFullDto(Event event);
 
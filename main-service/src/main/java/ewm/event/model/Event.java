@@ -4,6 +4,7 @@ import ewm.categories.model.Category;
 import ewm.user.model.User;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 
@@ -28,11 +29,11 @@ public class Event {
     @Column(nullable = false, length = 7000)
     private String description;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "initiator_id")
     private User initiator;
 
@@ -70,6 +71,18 @@ public class Event {
     @Column(nullable = false, length = 20)
     private String state;
 
+    // Меняется только атомарными UPDATE в EventRepository, чтобы сохранение события не затирало счетчик
+    @Column(name = "confirmed_requests", nullable = false, updatable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Long confirmedRequests = 0L;
+
+    // Копия числа просмотров из сервиса статистики для сортировки в БД, обновляется EventViewsSynchronizer
+    @Column(name = "views", nullable = false, updatable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Long views = 0L;
+
     public Boolean getRequestModeration() {
         return isRequestModeration != null ? isRequestModeration : true;
     }
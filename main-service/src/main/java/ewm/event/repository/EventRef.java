@@ -0,0 +1,9 @@
+package ewm.event.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Результат первого этапа поиска: id события и дата создания, с которой начинается окно статистики просмотров.
+ */
+public record EventRef(Long id, LocalDateTime createdAt) {
+}
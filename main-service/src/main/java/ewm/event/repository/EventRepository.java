@@ -1,31 +1,43 @@
 package ewm.event.repository;
 
 import ewm.event.model.Event;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.lang.NonNull;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
-public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecificationExecutor<Event> {
+public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecificationExecutor<Event>,
+        EventSearchRepository {
 
     List<Event> findAllById(@NonNull Iterable<Long> ids);
 
     boolean existsById(@NonNull Long id);
 
-    Page<Event> findAllByInitiatorIdOrderByCreatedAtDesc(Long initiatorId, Pageable pageable);
+    // Краткие проекции не читают description и не поднимают сущности категории и пользователя
+    @Query("SELECT e.id AS id, e.title AS title, e.annotation AS annotation, e.eventDate AS eventDate, " +
+            "e.createdAt AS createdAt, e.isPaid AS paid, e.confirmedRequests AS confirmedRequests, " +
+            "c.id AS categoryId, c.name AS categoryName, i.id AS initiatorId, i.name AS initiatorName " +
+            "FROM Event e LEFT JOIN e.category c LEFT JOIN e.initiator i " +
+            "WHERE e.initiator.id = :initiatorId ORDER BY e.createdAt DESC")
+    Slice<EventShortProjection> findShortByInitiatorId(@Param("initiatorId") Long initiatorId, Pageable pageable);
 
-    Optional<Event> findByIdAndInitiatorId(Long eventId, Long initiatorId);
+    long countByInitiatorId(Long initiatorId);
 
-    boolean existsByCategoryId(Long categoryId);
+    @Query("SELECT e FROM Event e " +
+            "LEFT JOIN FETCH e.category " +
+            "LEFT JOIN FETCH e.initiator " +
+            "WHERE e.id = :eventId AND e.initiator.id = :initiatorId")
+    Optional<Event> findByIdAndInitiatorId(@Param("eventId") Long eventId, @Param("initiatorId") Long initiatorId);
 
-    Page<Event> findAll(@NonNull Specification<Event> spec, @NonNull Pageable pageable);
+    boolean existsByCategoryId(Long categoryId);
 
     @Query("SELECT e FROM Event e LEFT JOIN FETCH e.initiator WHERE e.id = :eventId")
     Optional<Event> findByIdWithInitiator(@Param("eventId") Long eventId);
@@ -42,5 +54,65 @@ public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecific
             "WHERE e.id IN :eventIds")
     List<Event> findAllByIdWithCategoryAndInitiator(@Param("eventIds") List<Long> eventIds);
 
-    Event findFirstByOrderByCreatedAtAsc();
+    default List<Event> findAllByIdInOrder(List<Long> eventIds) {
+        if (eventIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Event> eventsById = findAllByIdWithCategoryAndInitiator(eventIds).stream()
+                .collect(Collectors.toMap(Event::getId, Function.identity()));
+        return eventIds.stream()
+                .map(eventsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Query("SELECT e.id AS id, e.title AS title, e.annotation AS annotation, e.eventDate AS eventDate, " +
+            "e.createdAt AS createdAt, e.isPaid AS paid, e.confirmedRequests AS confirmedRequests, " +
+            "c.id AS categoryId, c.name AS categoryName, i.id AS initiatorId, i.name AS initiatorName " +
+            "FROM Event e LEFT JOIN e.category c LEFT JOIN e.initiator i " +
+            "WHERE e.id IN :eventIds")
+    List<EventShortProjection> findShortByIdIn(@Param("eventIds") Collection<Long> eventIds);
+
+    default List<EventShortProjection> findShortByIdInOrder(List<Long> eventIds) {
+        if (eventIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, EventShortProjection> eventsById = findShortByIdIn(eventIds).stream()
+                .collect(Collectors.toMap(EventShortProjection::getId, Function.identity()));
+        return eventIds.stream()
+                .map(eventsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Modifying
+    @Query("UPDATE Event e SET e.confirmedRequests = e.confirmedRequests + :count " +
+            "WHERE e.id = :eventId " +
+            "AND (e.participantLimit = 0 OR e.confirmedRequests + :count <= e.participantLimit)")
+    int increaseConfirmedRequests(@Param("eventId") Long eventId, @Param("count") long count);
+
+    @Modifying
+    @Query("UPDATE Event e SET e.confirmedRequests = e.confirmedRequests - 1 " +
+            "WHERE e.id = :eventId AND e.confirmedRequests > 0")
+    int decreaseConfirmedRequests(@Param("eventId") Long eventId);
+
+    @Modifying
+    @Query(value = "UPDATE events e SET confirmed_requests = c.confirmed " +
+            "FROM (SELECT ev.id, COUNT(pr.id) AS confirmed FROM events ev " +
+            "LEFT JOIN participation_requests pr ON pr.event_id = ev.id AND pr.status = 'CONFIRMED' " +
+            "GROUP BY ev.id) c " +
+            "WHERE e.id = c.id AND e.confirmed_requests <> c.confirmed", nativeQuery = true)
+    int reconcileConfirmedRequests();
+
+    @Query("SELECT e.id AS id, e.createdAt AS createdAt, e.views AS views FROM Event e " +
+            "WHERE e.state = 'PUBLISHED' AND e.id > :afterId ORDER BY e.id")
+    List<EventViewsProjection> findPublishedViewsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT e.id AS id, e.createdAt AS createdAt, e.views AS views FROM Event e " +
+            "WHERE e.state = 'PUBLISHED' AND e.id IN :eventIds")
+    List<EventViewsProjection> findPublishedViewsByIds(@Param("eventIds") Collection<Long> eventIds);
+
+    @Modifying
+    @Query("UPDATE Event e SET e.views = :views WHERE e.id = :eventId")
+    int updateViews(@Param("eventId") Long eventId, @Param("views") Long views);
 }
\ No newline at end of file
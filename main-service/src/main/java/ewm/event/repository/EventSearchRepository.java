@@ -0,0 +1,16 @@
+package ewm.event.repository;
+
+import ewm.event.model.Event;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Первый этап двухэтапного поиска: страница id по спецификации. Сами события затем загружаются
+ * одним запросом со связями ({@link EventRepository#findAllByIdInOrder}), а по датам создания
+ * параллельно с этим запрашиваются просмотры.
+ */
+public interface EventSearchRepository {
+
+    Slice<EventRef> findIds(Specification<Event> spec, Pageable pageable);
+}
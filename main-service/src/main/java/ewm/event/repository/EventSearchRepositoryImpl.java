@@ -0,0 +1,47 @@
+package ewm.event.repository;
+
+import ewm.event.model.Event;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+
+public class EventSearchRepositoryImpl implements EventSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<EventRef> findIds(Specification<Event> spec, Pageable pageable) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<EventRef> query = criteriaBuilder.createQuery(EventRef.class);
+        Root<Event> root = query.from(Event.class);
+        // Выборку задаем до спецификации: по ней orderByTextRank отличает этот запрос от COUNT(*)
+        query.select(criteriaBuilder.construct(EventRef.class, root.get("id"), root.get("createdAt")));
+
+        Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, criteriaBuilder));
+        }
+
+        List<EventRef> refs = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+
+        boolean hasNext = refs.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? refs.subList(0, pageable.getPageSize()) : refs, pageable, hasNext);
+    }
+}
@@ -0,0 +1,27 @@
+package ewm.event.repository;
+
+import java.time.LocalDateTime;
+
+public interface EventShortProjection {
+    Long getId();
+
+    String getTitle();
+
+    String getAnnotation();
+
+    LocalDateTime getEventDate();
+
+    LocalDateTime getCreatedAt();
+
+    Boolean getPaid();
+
+    Long getConfirmedRequests();
+
+    Long getCategoryId();
+
+    String getCategoryName();
+
+    Long getInitiatorId();
+
+    String getInitiatorName();
+}
@@ -0,0 +1,11 @@
+package ewm.event.repository;
+
+import java.time.LocalDateTime;
+
+public interface EventViewsProjection {
+    Long getId();
+
+    LocalDateTime getCreatedAt();
+
+    Long getViews();
+}
@@ -0,0 +1,72 @@
+package ewm.event.repository.search;
+
+import org.hibernate.query.ReturnableType;
+import org.hibernate.query.sqm.function.AbstractSqmSelfRenderingFunctionDescriptor;
+import org.hibernate.query.sqm.produce.function.StandardArgumentsValidators;
+import org.hibernate.query.sqm.produce.function.StandardFunctionArgumentTypeResolvers;
+import org.hibernate.query.sqm.produce.function.StandardFunctionReturnTypeResolvers;
+import org.hibernate.sql.ast.SqlAstTranslator;
+import org.hibernate.sql.ast.spi.SqlAppender;
+import org.hibernate.sql.ast.tree.SqlAstNode;
+import org.hibernate.sql.ast.tree.expression.ColumnReference;
+import org.hibernate.sql.ast.tree.expression.Expression;
+import org.hibernate.type.BasicType;
+
+import java.util.List;
+
+/**
+ * Функция поиска по событию: аргументы - id события, tsquery и LIKE-шаблон. Id нужен только как привязка
+ * к строке: по его псевдониму таблицы функция обращается к колонкам той же строки (search_vector,
+ * annotation, description), без подзапроса на каждую строку.
+ */
+class EventSearchVectorFunction extends AbstractSqmSelfRenderingFunctionDescriptor {
+    enum Kind {
+        MATCH,
+        RANK
+    }
+
+    private final Kind kind;
+    private final boolean postgres;
+
+    EventSearchVectorFunction(String name, Kind kind, boolean postgres, BasicType<?> returnType) {
+        super(name, StandardArgumentsValidators.exactly(3), StandardFunctionReturnTypeResolvers.invariant(returnType),
+                StandardFunctionArgumentTypeResolvers.NULL);
+        this.kind = kind;
+        this.postgres = postgres;
+    }
+
+    @Override
+    public void render(SqlAppender sqlAppender, List<? extends SqlAstNode> arguments, ReturnableType<?> returnType,
+                       SqlAstTranslator<?> walker) {
+        String table = tableQualifier(arguments.get(0));
+        SqlAstNode tsQuery = arguments.get(1);
+        SqlAstNode likePattern = arguments.get(2);
+
+        if (kind == Kind.MATCH && postgres) {
+            sqlAppender.appendSql("(" + table + "search_vector @@ to_tsquery('simple', ");
+            tsQuery.accept(walker);
+            sqlAppender.appendSql("))");
+        } else if (kind == Kind.MATCH) {
+            // Без PostgreSQL (H2) - прежний поиск подстроки
+            sqlAppender.appendSql("(lower(" + table + "annotation) like ");
+            likePattern.accept(walker);
+            sqlAppender.appendSql(" or lower(" + table + "description) like ");
+            likePattern.accept(walker);
+            sqlAppender.appendSql(")");
+        } else if (postgres) {
+            sqlAppender.appendSql("ts_rank_cd(" + table + "search_vector, to_tsquery('simple', ");
+            tsQuery.accept(walker);
+            sqlAppender.appendSql("))");
+        } else {
+            sqlAppender.appendSql("cast(0 as double precision)");
+        }
+    }
+
+    private static String tableQualifier(SqlAstNode eventId) {
+        ColumnReference column = eventId instanceof Expression expression ? expression.getColumnReference() : null;
+        if (column == null) {
+            throw new IllegalArgumentException("Первым аргументом функции поиска должен быть id события");
+        }
+        return column.getQualifier() == null ? "" : column.getQualifier() + ".";
+    }
+}
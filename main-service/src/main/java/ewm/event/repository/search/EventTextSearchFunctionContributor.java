@@ -0,0 +1,30 @@
+package ewm.event.repository.search;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Функции полнотекстового поиска по событиям для criteria-запросов. Аргументы: id события,
+ * tsquery и LIKE-шаблон. В PostgreSQL используется колонка events.search_vector с GIN-индексом,
+ * в остальных БД (H2) - прежний поиск подстроки без ранжирования.
+ */
+public class EventTextSearchFunctionContributor implements FunctionContributor {
+    public static final String MATCH_FUNCTION = "event_text_match";
+    public static final String RANK_FUNCTION = "event_text_rank";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicTypeRegistry basicTypes = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+        boolean postgres = functionContributions.getDialect() instanceof PostgreSQLDialect;
+
+        functionContributions.getFunctionRegistry().register(MATCH_FUNCTION, new EventSearchVectorFunction(
+                MATCH_FUNCTION, EventSearchVectorFunction.Kind.MATCH, postgres,
+                basicTypes.resolve(StandardBasicTypes.BOOLEAN)));
+        functionContributions.getFunctionRegistry().register(RANK_FUNCTION, new EventSearchVectorFunction(
+                RANK_FUNCTION, EventSearchVectorFunction.Kind.RANK, postgres,
+                basicTypes.resolve(StandardBasicTypes.DOUBLE)));
+    }
+}
@@ -0,0 +1,27 @@
+package ewm.event.repository.search;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+public final class TextSearchQuery {
+
+    private TextSearchQuery() {
+    }
+
+    /**
+     * Каждое слово запроса должно совпасть с началом слова в аннотации или описании.
+     * Возвращает null, если в запросе нет ни одного слова.
+     */
+    public static String toTsQuery(String text) {
+        String tsQuery = Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .map(word -> word + ":*")
+                .collect(Collectors.joining(" & "));
+        return tsQuery.isEmpty() ? null : tsQuery;
+    }
+
+    public static String toLikePattern(String text) {
+        return "%" + text.toLowerCase() + "%";
+    }
+}
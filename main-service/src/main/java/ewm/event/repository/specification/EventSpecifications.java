@@ -2,6 +2,9 @@ package ewm.event.repository.specification;
 
 import ewm.event.model.Event;
 import ewm.event.model.EventState;
+import ewm.event.repository.search.EventTextSearchFunctionContributor;
+import ewm.event.repository.search.TextSearchQuery;
+import jakarta.persistence.criteria.JoinType;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDateTime;
@@ -19,11 +22,34 @@ public class EventSpecifications {
             if (text == null || text.trim().isEmpty()) {
                 return criteriaBuilder.conjunction();
             }
-            String searchText = "%" + text.toLowerCase() + "%";
-            return criteriaBuilder.or(
-                    criteriaBuilder.like(criteriaBuilder.lower(root.get("annotation")), searchText),
-                    criteriaBuilder.like(criteriaBuilder.lower(root.get("description")), searchText)
-            );
+            String searchText = TextSearchQuery.toLikePattern(text);
+            String tsQuery = TextSearchQuery.toTsQuery(text);
+            if (tsQuery == null) {
+                return criteriaBuilder.or(
+                        criteriaBuilder.like(criteriaBuilder.lower(root.get("annotation")), searchText),
+                        criteriaBuilder.like(criteriaBuilder.lower(root.get("description")), searchText)
+                );
+            }
+            return criteriaBuilder.isTrue(criteriaBuilder.function(EventTextSearchFunctionContributor.MATCH_FUNCTION,
+                    Boolean.class, root.get("id"), criteriaBuilder.literal(tsQuery),
+                    criteriaBuilder.literal(searchText)));
+        };
+    }
+
+    public static Specification<Event> orderByTextRank(String text) {
+        return (root, query, criteriaBuilder) -> {
+            String tsQuery = TextSearchQuery.toTsQuery(text);
+            // COUNT(*) сортировать не нужно. Выборку в нем Spring Data задает уже после спецификации,
+            // а Hibernate до этого отдает неявную выборку корня, поэтому узнаем его по типу результата
+            boolean countQuery = Long.class.equals(query.getResultType());
+            if (tsQuery != null && !countQuery) {
+                query.orderBy(
+                        criteriaBuilder.desc(criteriaBuilder.function(EventTextSearchFunctionContributor.RANK_FUNCTION,
+                                Double.class, root.get("id"), criteriaBuilder.literal(tsQuery),
+                                criteriaBuilder.literal(TextSearchQuery.toLikePattern(text)))),
+                        criteriaBuilder.asc(root.get("id")));
+            }
+            return criteriaBuilder.conjunction();
         };
     }
 
@@ -91,4 +117,15 @@ public class EventSpecifications {
             return root.get("state").in(states);
         };
     }
+
+    // Категория и инициатор загружаются лениво: для выборки сущностей подтягиваем их тем же запросом
+    public static Specification<Event> fetchCategoryAndInitiator() {
+        return (root, query, criteriaBuilder) -> {
+            if (Event.class.equals(query.getResultType())) {
+                root.fetch("category", JoinType.LEFT);
+                root.fetch("initiator", JoinType.LEFT);
+            }
+            return criteriaBuilder.conjunction();
+        };
+    }
 }
\ No newline at end of file
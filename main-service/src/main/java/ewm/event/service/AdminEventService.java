@@ -1,14 +1,18 @@
 package ewm.event.service;
 
 import ewm.event.dto.AdminEventSearchRequest;
+import ewm.event.dto.CursorPage;
 import ewm.event.dto.EventFullDto;
 import ewm.event.dto.UpdateEventAdminRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
 public interface AdminEventService {
-    List<EventFullDto> getEvents(AdminEventSearchRequest requestParams, Pageable pageable);
+    Slice<EventFullDto> getEvents(AdminEventSearchRequest requestParams, Pageable pageable);
+
+    CursorPage<EventFullDto> getEventsByCursor(AdminEventSearchRequest requestParams, int size);
 
     EventFullDto updateEvent(Long eventId, UpdateEventAdminRequest request);
 }
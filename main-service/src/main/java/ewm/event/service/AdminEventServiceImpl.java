@@ -1,27 +1,36 @@
 package ewm.event.service;
 
 import ewm.event.dto.AdminEventSearchRequest;
+import ewm.event.dto.CursorPage;
 import ewm.event.dto.EventFullDto;
 import ewm.event.dto.UpdateEventAdminRequest;
 import ewm.event.mapper.EventMapper;
 import ewm.event.model.Event;
 import ewm.event.model.EventState;
 import ewm.event.model.StateAction;
+import ewm.event.repository.EventRef;
 import ewm.event.repository.EventRepository;
 import ewm.event.repository.specification.EventSpecifications;
+import ewm.util.pagination.PaginationUtils;
 import ewm.util.validation.EventValidationUtils;
 import ewm.exception.ConflictException;
 import ewm.exception.NotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
@@ -31,29 +40,46 @@ public class AdminEventServiceImpl implements AdminEventService {
     private final EventRepository eventRepository;
     private final EventMapper eventMapper;
     private final EventStatsService eventStatsService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional(readOnly = true)
-    public List<EventFullDto> getEvents(AdminEventSearchRequest requestParams,
-                                        Pageable pageable) {
+    public Slice<EventFullDto> getEvents(AdminEventSearchRequest requestParams,
+                                         Pageable pageable) {
 
         EventValidationUtils.validateDateRange(requestParams.getRangeStart(), requestParams.getRangeEnd());
 
         Specification<Event> specification = buildAdminEventsSpecification(requestParams);
 
-        Page<Long> eventIdsPage = eventRepository.findAll(specification, pageable)
-                .map(Event::getId);
-        List<Long> eventIds = eventIdsPage.getContent();
+        Slice<EventRef> page = eventRepository.findIds(specification, pageable);
+        CompletableFuture<Map<Long, Long>> views = eventStatsService.requestViews(page.getContent());
+        Slice<EventRef> eventRefs = PaginationUtils.withTotal(page, Boolean.TRUE.equals(requestParams.getWithTotal()),
+                () -> eventRepository.count(specification));
 
-        if (eventIds.isEmpty()) {
-            return List.of();
-        }
+        log.debug("Админский поиск событий: найдено {} событий", eventRefs.getNumberOfElements());
+
+        return PaginationUtils.map(eventRefs, refs -> eventStatsService.enrichEventsFullDtoBatch(
+                eventRepository.findAllByIdInOrder(refs.stream().map(EventRef::id).toList()), eventMapper, views));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<EventFullDto> getEventsByCursor(AdminEventSearchRequest requestParams, int size) {
+        EventValidationUtils.validateDateRange(requestParams.getRangeStart(), requestParams.getRangeEnd());
 
-        List<Event> events = eventRepository.findAllByIdWithCategoryAndInitiator(eventIds);
+        Sort sort = Sort.by(Sort.Direction.ASC, "id");
+        KeysetScrollPosition position = EventCursor.decode(requestParams.getCursor(), sort);
+        Window<Event> window = eventRepository.findBy(buildAdminEventsSpecification(requestParams)
+                .and(EventSpecifications.fetchCategoryAndInitiator()), query -> query
+                .sortBy(sort)
+                .limit(size)
+                .scroll(position));
 
-        log.debug("Админский поиск событий: найдено {} событий", events.size());
+        log.debug("Админский поиск событий по курсору: найдено {} событий", window.size());
 
-        return eventStatsService.enrichEventsFullDtoBatch(events, eventMapper);
+        String nextCursor = window.hasNext() ? EventCursor.encode(window.positionAt(window.size() - 1), sort) : null;
+        return new CursorPage<>(eventStatsService.enrichEventsFullDtoBatch(window.getContent(), eventMapper),
+                nextCursor);
     }
 
     private Specification<Event> buildAdminEventsSpecification(AdminEventSearchRequest params) {
@@ -98,6 +124,7 @@ public class AdminEventServiceImpl implements AdminEventService {
         eventMapper.updateEventFromAdminRequest(request, event);
 
         Event updatedEvent = eventRepository.save(event);
+        eventPublisher.publishEvent(new EventUpdatedEvent(eventId));
         log.info("Событие обновлено администратором: ID={}, новое состояние={}", eventId, updatedEvent.getState());
 
         return eventStatsService.enrichEventFullDto(updatedEvent, eventMapper);
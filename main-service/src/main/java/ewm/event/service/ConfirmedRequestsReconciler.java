@@ -0,0 +1,32 @@
+package ewm.event.service;
+
+import ewm.event.repository.EventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ConfirmedRequestsReconciler {
+    private final EventRepository eventRepository;
+
+    @Value("${ewm.confirmed-requests.reconcile-on-startup:true}")
+    private boolean reconcileOnStartup;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void reconcile() {
+        if (!reconcileOnStartup) {
+            return;
+        }
+        int updated = eventRepository.reconcileConfirmedRequests();
+        if (updated > 0) {
+            log.info("Пересчитано количество подтвержденных заявок у {} событий", updated);
+        }
+    }
+}
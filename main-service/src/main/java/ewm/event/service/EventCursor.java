@@ -0,0 +1,68 @@
+package ewm.event.service;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Непрозрачный курсор для постраничного вывода событий по ключу сортировки (keyset).
+ * Внутри - значения полей сортировки последнего события страницы, например "eventDate=2024-06-01T12:00|id=42".
+ */
+public final class EventCursor {
+    private static final String SEPARATOR = "|";
+
+    private EventCursor() {
+    }
+
+    public static KeysetScrollPosition decode(String cursor, Sort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+
+        List<String> properties = properties(sort);
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split("\\" + SEPARATOR);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Некорректный курсор: " + cursor);
+        }
+        if (parts.length != properties.size()) {
+            throw new IllegalArgumentException("Курсор не соответствует параметрам сортировки: " + cursor);
+        }
+
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (int i = 0; i < parts.length; i++) {
+            String property = properties.get(i);
+            if (!parts[i].startsWith(property + "=")) {
+                throw new IllegalArgumentException("Курсор не соответствует параметрам сортировки: " + cursor);
+            }
+            keys.put(property, parseValue(property, parts[i].substring(property.length() + 1), cursor));
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    public static String encode(ScrollPosition position, Sort sort) {
+        Map<String, Object> keys = ((KeysetScrollPosition) position).getKeys();
+        StringJoiner joiner = new StringJoiner(SEPARATOR);
+        properties(sort).forEach(property -> joiner.add(property + "=" + keys.get(property)));
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(joiner.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> properties(Sort sort) {
+        return sort.stream().map(Sort.Order::getProperty).toList();
+    }
+
+    private static Object parseValue(String property, String value, String cursor) {
+        try {
+            return "eventDate".equals(property) ? LocalDateTime.parse(value) : Long.valueOf(value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Некорректный курсор: " + cursor);
+        }
+    }
+}
@@ -2,11 +2,12 @@ package ewm.event.service;
 
 import ewm.event.dto.*;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
 public interface EventService {
-    List<EventShortDto> getEvents(Long userId, Pageable pageable);
+    Slice<EventShortDto> getEvents(Long userId, Pageable pageable, boolean withTotal);
 
     EventFullDto createEvent(Long userId, NewEventDto newEventDto);
 
@@ -14,7 +15,9 @@ public interface EventService {
 
     EventFullDto updateEvent(Long userId, Long eventId, UpdateEventUserRequest request);
 
-    List<EventShortDto> getPublicEvents(PublicEventSearchRequest requestParams, Pageable pageable, String ip);
+    Slice<EventShortDto> getPublicEvents(PublicEventSearchRequest requestParams, Pageable pageable, String ip);
+
+    CursorPage<EventShortDto> getPublicEventsByCursor(PublicEventSearchRequest requestParams, int size, String ip);
 
     EventFullDto getPublicEventById(Long eventId, String ip);
 }
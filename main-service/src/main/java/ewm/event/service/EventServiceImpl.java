@@ -4,26 +4,34 @@ import ewm.event.repository.specification.EventSpecifications;
 import ewm.event.dto.*;
 import ewm.event.mapper.EventMapper;
 import ewm.event.model.Event;
+import ewm.event.model.EventSort;
 import ewm.event.model.EventState;
 import ewm.event.model.StateAction;
+import ewm.event.repository.EventRef;
 import ewm.event.repository.EventRepository;
+import ewm.event.repository.EventShortProjection;
+import ewm.util.pagination.PaginationUtils;
 import ewm.util.validation.EventValidationUtils;
 import ewm.exception.NotFoundException;
 import ewm.user.model.User;
 import ewm.user.service.UserService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
@@ -35,14 +43,17 @@ public class EventServiceImpl implements EventService {
     private final EventMapper eventMapper;
     private final UserService userService;
     private final EventStatsService eventStatsService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional(readOnly = true)
-    public List<EventShortDto> getEvents(Long userId, Pageable pageable) {
+    public Slice<EventShortDto> getEvents(Long userId, Pageable pageable, boolean withTotal) {
         userService.getUserById(userId);
-        Page<Event> eventsPage = eventRepository.findAllByInitiatorIdOrderByCreatedAtDesc(userId, pageable);
+        Slice<EventShortProjection> events = PaginationUtils.withTotal(
+                eventRepository.findShortByInitiatorId(userId, pageable), withTotal,
+                () -> eventRepository.countByInitiatorId(userId));
 
-        return eventStatsService.enrichEventsShortDtoBatch(eventsPage.getContent(), eventMapper);
+        return PaginationUtils.map(events, content -> eventStatsService.enrichShortProjections(content, eventMapper));
     }
 
     @Override
@@ -91,29 +102,68 @@ public class EventServiceImpl implements EventService {
         updateEventState(event, request);
 
         Event updatedEvent = eventRepository.save(event);
+        eventPublisher.publishEvent(new EventUpdatedEvent(eventId));
         return eventStatsService.enrichEventFullDto(updatedEvent, eventMapper);
     }
 
+    // Публичные чтения идут без общей транзакции: каждый запрос к БД берет соединение только на время
+    // своего выполнения и не держит его, пока ждем сервис статистики
     @Override
-    @Transactional(readOnly = true)
-    public List<EventShortDto> getPublicEvents(PublicEventSearchRequest requestParams, Pageable pageable, String ip) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Slice<EventShortDto> getPublicEvents(PublicEventSearchRequest requestParams, Pageable pageable, String ip) {
 
         EventValidationUtils.validateDateRange(requestParams.getRangeStart(), requestParams.getRangeEnd());
 
         Specification<Event> spec = buildPublicEventsSpecification(requestParams);
+        if (requestParams.getSort() == null && hasText(requestParams)) {
+            spec = spec.and(EventSpecifications.orderByTextRank(requestParams.getText()));
+        }
 
-        List<Event> events = eventRepository.findAll(spec, pageable).getContent();
-        List<EventShortDto> result = eventStatsService.enrichEventsShortDtoBatch(events, eventMapper);
+        Pageable sortedPageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                createSort(requestParams.getSort()));
+
+        Specification<Event> countSpec = spec;
+        Slice<EventRef> page = eventRepository.findIds(spec, sortedPageable);
+        // Просмотры запрашиваются сразу и приходят, пока считаем количество и загружаем события
+        CompletableFuture<Map<Long, Long>> views = eventStatsService.requestViews(page.getContent());
+        Slice<EventRef> eventRefs = PaginationUtils.withTotal(page, Boolean.TRUE.equals(requestParams.getWithTotal()),
+                () -> eventRepository.count(countSpec));
+        Slice<EventShortDto> result = PaginationUtils.map(eventRefs, refs -> eventStatsService.enrichShortProjections(
+                eventRepository.findShortByIdInOrder(refs.stream().map(EventRef::id).toList()), eventMapper, views));
 
         eventStatsService.recordHit(ENDPOINT, ip);
 
-        return sortEvents(result, requestParams.getSort());
+        return result;
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CursorPage<EventShortDto> getPublicEventsByCursor(PublicEventSearchRequest requestParams, int size,
+                                                             String ip) {
+        EventValidationUtils.validateDateRange(requestParams.getRangeStart(), requestParams.getRangeEnd());
+
+        // Без явной сортировки курсор идет по id: порядок по релевантности для ключа не подходит
+        Sort sort = requestParams.getSort() == null ? Sort.by(Sort.Direction.ASC, "id")
+                : createSort(requestParams.getSort());
+        KeysetScrollPosition position = EventCursor.decode(requestParams.getCursor(), sort);
+        Window<Event> window = eventRepository.findBy(buildPublicEventsSpecification(requestParams)
+                .and(EventSpecifications.fetchCategoryAndInitiator()), query -> query
+                .sortBy(sort)
+                .limit(size)
+                .scroll(position));
+
+        List<EventShortDto> result = eventStatsService.enrichEventsShortDtoBatch(window.getContent(), eventMapper);
+
+        eventStatsService.recordHit(ENDPOINT, ip);
+
+        String nextCursor = window.hasNext() ? EventCursor.encode(window.positionAt(window.size() - 1), sort) : null;
+        return new CursorPage<>(result, nextCursor);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public EventFullDto getPublicEventById(Long eventId, String ip) {
-        Event event = eventRepository.findById(eventId)
+        Event event = eventRepository.findByIdWithCategoryAndInitiator(eventId)
                 .filter(e -> EventState.PUBLISHED.toString().equals(e.getState()))
                 .orElseThrow(() -> new NotFoundException("Событие с id=" + eventId + " не найдено"));
 
@@ -124,7 +174,7 @@ public class EventServiceImpl implements EventService {
     private Specification<Event> buildPublicEventsSpecification(PublicEventSearchRequest params) {
         Specification<Event> spec = Specification.where(EventSpecifications.isPublished());
 
-        if (params.getText() != null && !params.getText().trim().isEmpty()) {
+        if (hasText(params)) {
             spec = spec.and(EventSpecifications.containsText(params.getText()));
         }
 
@@ -154,25 +204,19 @@ public class EventServiceImpl implements EventService {
         return spec;
     }
 
-    private Pageable createPageable(Integer from, Integer size, String sort) {
-        int pageSize = size != null ? Math.max(1, size) : 10;
-        int pageFrom = from != null ? Math.max(0, from) : 0;
-        int page = pageFrom / pageSize;
-
-        Sort sorting = "VIEWS".equals(sort) ?
-                Sort.by(Sort.Direction.DESC, "id") :
-                Sort.by(Sort.Direction.DESC, "eventDate");
-
-        return PageRequest.of(page, pageSize, sorting);
+    private boolean hasText(PublicEventSearchRequest params) {
+        return params.getText() != null && !params.getText().trim().isEmpty();
     }
 
-    private List<EventShortDto> sortEvents(List<EventShortDto> events, String sort) {
-        if ("VIEWS".equals(sort)) {
-            return events.stream()
-                    .sorted(Comparator.comparing(EventShortDto::getViews).reversed())
-                    .collect(Collectors.toList());
+    private Sort createSort(String sort) {
+        if (EventSort.VIEWS.name().equals(sort)) {
+            // Сортировка по сохраненной копии просмотров, чтобы порядок был верным между страницами
+            return Sort.by(Sort.Direction.DESC, "views").and(Sort.by(Sort.Direction.ASC, "id"));
+        }
+        if (EventSort.EVENT_DATE.name().equals(sort)) {
+            return Sort.by(Sort.Direction.DESC, "eventDate").and(Sort.by(Sort.Direction.ASC, "id"));
         }
-        return events;
+        return Sort.unsorted();
     }
 
     private void updateEventState(Event event, UpdateEventUserRequest request) {
@@ -5,57 +5,111 @@ import ewm.event.dto.EventFullDto;
 import ewm.event.dto.EventShortDto;
 import ewm.event.mapper.EventMapper;
 import ewm.event.model.Event;
-import ewm.event.repository.EventRepository;
-import ewm.participationRequest.dto.EventConfirmedRequestsDto;
-import ewm.participationRequest.repository.ParticipationRequestRepository;
-import lombok.RequiredArgsConstructor;
+import ewm.event.repository.EventRef;
+import ewm.event.repository.EventShortProjection;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import model.EndpointHitDto;
 import model.ViewStatsDto;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class EventStatsService {
     private static final String ENDPOINT = "/events";
     private static final String APP_NAME = "ewm-main-service";
 
     private final StatsClient statsClient;
-    private final ParticipationRequestRepository requestRepository;
-    private final EventRepository eventRepository;
+    private final EventViewsCache eventViewsCache;
+    private final Duration viewsTimeout;
+    private final ExecutorService viewsExecutor;
+
+    public EventStatsService(StatsClient statsClient,
+                             EventViewsCache eventViewsCache,
+                             @Value("${ewm.enrichment.views-timeout:1s}") Duration viewsTimeout,
+                             @Value("${ewm.enrichment.pool-size:16}") int poolSize,
+                             @Value("${ewm.enrichment.queue-capacity:256}") int queueCapacity,
+                             @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.statsClient = statsClient;
+        this.eventViewsCache = eventViewsCache;
+        this.viewsTimeout = viewsTimeout;
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("event-views-", 0).factory()
+                : Thread.ofPlatform().name("event-views-", 0).daemon().factory();
+        this.viewsExecutor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
 
-    public Map<Long, Long> getViewsForEventsBatch(List<Long> eventIds) {
-        if (eventIds.isEmpty()) {
-            return Map.of();
-        }
+    @PreDestroy
+    public void shutdown() {
+        viewsExecutor.shutdownNow();
+    }
 
-        List<String> uris = eventIds.stream()
-                .map(id -> ENDPOINT + "/" + id)
-                .collect(Collectors.toList());
+    public Map<Long, Long> getViewsForEventsBatch(List<Event> events) {
+        return getViews(events.stream()
+                .collect(Collectors.toMap(Event::getId, Event::getCreatedAt, (first, second) -> first)));
+    }
 
-        LocalDateTime start = eventRepository.findFirstByOrderByCreatedAtAsc().getCreatedAt();
-        LocalDateTime end = LocalDateTime.now();
+    /**
+     * Запускает получение просмотров, пока вызывающий загружает сами события из БД. Если сервис статистики
+     * не ответил за views-timeout или пул занят, просмотры считаются нулевыми; запоздавший ответ
+     * все равно попадет в кэш просмотров.
+     */
+    public CompletableFuture<Map<Long, Long>> requestViews(List<EventRef> events) {
+        return requestViews(events.stream()
+                .collect(Collectors.toMap(EventRef::id, EventRef::createdAt, (first, second) -> first)));
+    }
 
-        List<ViewStatsDto> stats = statsClient.getStats(start, end, uris, true);
+    // Просмотров раньше создания события не бывает, поэтому окно статистики начинается
+    // с самого раннего createdAt среди запрошенных событий
+    private Map<Long, Long> getViews(Map<Long, LocalDateTime> createdAtById) {
+        return requestViews(createdAtById).join();
+    }
 
-        Map<Long, Long> viewsMap = eventIds.stream()
-                .collect(Collectors.toMap(id -> id, id -> 0L));
+    private CompletableFuture<Map<Long, Long>> requestViews(Map<Long, LocalDateTime> createdAtById) {
+        if (createdAtById.isEmpty()) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
 
-        if (stats != null) {
-            stats.forEach(stat -> {
-                Long eventId = extractEventIdFromUri(stat.getUri());
-                if (eventId != -1L) {
-                    viewsMap.put(eventId, stat.getHits());
-                }
-            });
+        try {
+            return CompletableFuture.supplyAsync(() -> loadCachedViews(createdAtById), viewsExecutor)
+                    .orTimeout(viewsTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                    .exceptionally(e -> {
+                        log.warn("Просмотры событий {} не получены, отдаем нули: {}", createdAtById.keySet(),
+                                e instanceof TimeoutException ? "превышено время ожидания " + viewsTimeout
+                                        : e.getMessage());
+                        return Map.of();
+                    });
+        } catch (RejectedExecutionException e) {
+            log.warn("Пул запросов просмотров переполнен, отдаем нули для событий {}", createdAtById.keySet());
+            return CompletableFuture.completedFuture(Map.of());
         }
+    }
 
-        return viewsMap;
+    // Ошибка сервиса статистики не подменяется пустым ответом: он попал бы в кэш и показывал нули весь ttl.
+    // Ошибка доходит до requestViews и дает нули без кэширования, а устаревшие значения отдает сам кэш
+    private Map<Long, Long> loadCachedViews(Map<Long, LocalDateTime> createdAtById) {
+        return eventViewsCache.getViews(List.copyOf(createdAtById.keySet()), eventIds -> loadViews(eventIds,
+                eventIds.stream().map(createdAtById::get).min(Comparator.naturalOrder()).orElseThrow()));
+    }
+
+    // Не подменяет ошибку сервиса статистики нулями
+    public Map<Long, Long> loadViews(List<Long> eventIds, LocalDateTime start) {
+        return toViewsMap(eventIds, statsClient.requestStats(start, LocalDateTime.now(), toUris(eventIds), true));
+    }
+
+    public Set<Long> findEventsViewedBetween(LocalDateTime start, LocalDateTime end) {
+        return statsClient.requestStatsByPrefix(start, end, ENDPOINT + "/", false).stream()
+                .map(stat -> extractEventIdFromUri(stat.getUri()))
+                .filter(eventId -> eventId != -1L)
+                .collect(Collectors.toSet());
     }
 
     public void recordHit(String path, String ip) {
@@ -66,34 +120,43 @@ public class EventStatsService {
                 LocalDateTime.now()
         );
         statsClient.hit(hitDto);
-    }
 
-    public Map<Long, Long> getConfirmedRequestsBatch(List<Long> eventIds) {
-        if (eventIds.isEmpty()) {
-            return Map.of();
+        Long eventId = path.startsWith(ENDPOINT + "/") ? extractEventIdFromUri(path) : -1L;
+        if (eventId != -1L) {
+            eventViewsCache.recordView(eventId, ip);
         }
-
-        List<EventConfirmedRequestsDto> results = requestRepository.findConfirmedRequestsCountByEventIds(eventIds);
-
-        Map<Long, Long> confirmedRequestsMap = eventIds.stream()
-                .collect(Collectors.toMap(id -> id, id -> 0L));
-
-        results.forEach(dto -> confirmedRequestsMap.put(dto.getEventId(), dto.getConfirmedCount()));
-
-        log.debug("Получены подтвержденные запросы для {} событий", results.size());
-        return confirmedRequestsMap;
     }
 
     public EventFullDto enrichEventFullDto(Event event, EventMapper eventMapper) {
         EventFullDto dto = eventMapper.toFullDto(event);
-        Map<Long, Long> confirmedRequests = getConfirmedRequestsBatch(List.of(event.getId()));
-        Map<Long, Long> views = getViewsForEventsBatch(List.of(event.getId()));
+        Map<Long, Long> views = getViewsForEventsBatch(List.of(event));
 
-        dto.setConfirmedRequests(confirmedRequests.getOrDefault(event.getId(), 0L));
         dto.setViews(views.getOrDefault(event.getId(), 0L));
         return dto;
     }
 
+    private List<String> toUris(List<Long> eventIds) {
+        return eventIds.stream()
+                .map(id -> ENDPOINT + "/" + id)
+                .collect(Collectors.toList());
+    }
+
+    private Map<Long, Long> toViewsMap(List<Long> eventIds, List<ViewStatsDto> stats) {
+        Map<Long, Long> viewsMap = eventIds.stream()
+                .collect(Collectors.toMap(id -> id, id -> 0L));
+
+        if (stats != null) {
+            stats.forEach(stat -> {
+                Long eventId = extractEventIdFromUri(stat.getUri());
+                if (eventId != -1L) {
+                    viewsMap.put(eventId, stat.getHits());
+                }
+            });
+        }
+
+        return viewsMap;
+    }
+
     private Long extractEventIdFromUri(String uri) {
         try {
             return Long.parseLong(uri.substring(ENDPOINT.length() + 1));
@@ -103,21 +166,21 @@ public class EventStatsService {
     }
 
     public List<EventFullDto> enrichEventsFullDtoBatch(List<Event> events, EventMapper eventMapper) {
+        return enrichEventsFullDtoBatch(events, eventMapper, requestViews(events.stream()
+                .collect(Collectors.toMap(Event::getId, Event::getCreatedAt, (first, second) -> first))));
+    }
+
+    public List<EventFullDto> enrichEventsFullDtoBatch(List<Event> events, EventMapper eventMapper,
+                                                       CompletableFuture<Map<Long, Long>> views) {
         if (events.isEmpty()) {
             return List.of();
         }
 
-        List<Long> eventIds = events.stream()
-                .map(Event::getId)
-                .collect(Collectors.toList());
-
-        Map<Long, Long> confirmedRequestsMap = getConfirmedRequestsBatch(eventIds);
-        Map<Long, Long> viewsMap = getViewsForEventsBatch(eventIds);
+        Map<Long, Long> viewsMap = views.join();
 
         return events.stream()
                 .map(event -> {
                     EventFullDto dto = eventMapper.toFullDto(event);
-                    dto.setConfirmedRequests(confirmedRequestsMap.getOrDefault(event.getId(), 0L));
                     dto.setViews(viewsMap.getOrDefault(event.getId(), 0L));
                     return dto;
                 })
@@ -130,17 +193,35 @@ public class EventStatsService {
             return List.of();
         }
 
-        List<Long> eventIds = events.stream()
-                .map(Event::getId)
+        Map<Long, Long> viewsMap = getViewsForEventsBatch(events);
+
+        return events.stream()
+                .map(event -> {
+                    EventShortDto dto = eventMapper.toShortDto(event);
+                    dto.setViews(viewsMap.getOrDefault(event.getId(), 0L));
+                    return dto;
+                })
                 .collect(Collectors.toList());
+    }
+
+    public List<EventShortDto> enrichShortProjections(List<? extends EventShortProjection> events,
+                                                      EventMapper eventMapper) {
+        return enrichShortProjections(events, eventMapper, requestViews(events.stream().collect(Collectors.toMap(
+                EventShortProjection::getId, EventShortProjection::getCreatedAt, (first, second) -> first))));
+    }
+
+    public List<EventShortDto> enrichShortProjections(List<? extends EventShortProjection> events,
+                                                      EventMapper eventMapper,
+                                                      CompletableFuture<Map<Long, Long>> views) {
+        if (events.isEmpty()) {
+            return List.of();
+        }
 
-        Map<Long, Long> confirmedRequestsMap = getConfirmedRequestsBatch(eventIds);
-        Map<Long, Long> viewsMap = getViewsForEventsBatch(eventIds);
+        Map<Long, Long> viewsMap = views.join();
 
         return events.stream()
                 .map(event -> {
                     EventShortDto dto = eventMapper.toShortDto(event);
-                    dto.setConfirmedRequests(confirmedRequestsMap.getOrDefault(event.getId(), 0L));
                     dto.setViews(viewsMap.getOrDefault(event.getId(), 0L));
                     return dto;
                 })
@@ -0,0 +1,7 @@
+package ewm.event.service;
+
+/**
+ * Публикуется при изменении данных события, которые попадают в ответы других разделов (например, подборок).
+ */
+public record EventUpdatedEvent(Long eventId) {
+}
@@ -0,0 +1,223 @@
+package ewm.event.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Кэш просмотров событий. Свежие значения отдаются сразу, устаревшие (но не старше ttl + stale-window)
+ * тоже отдаются, а в фоне перезапрашиваются. Одновременные промахи по одним и тем же событиям
+ * объединяются в один запрос к сервису статистики. Просмотры, записанные этим узлом после загрузки,
+ * учитываются сразу, без запроса к статистике (см. {@link Entry#currentViews()}).
+ */
+@Component
+@Slf4j
+public class EventViewsCache {
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final long staleWindowNanos;
+    private final int maxSize;
+    private final int maxLocalViewers;
+    private final LongSupplier nanoClock;
+
+    private final Map<Long, Entry> entries;
+    private final ConcurrentMap<Long, PendingLoad> inFlight = new ConcurrentHashMap<>();
+    // Не synchronized: под виртуальными потоками ожидание монитора занимает поток-носитель
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ExecutorService refreshExecutor;
+
+    @Autowired
+    public EventViewsCache(@Value("${ewm.views-cache.enabled:true}") boolean enabled,
+                           @Value("${ewm.views-cache.ttl:10s}") Duration ttl,
+                           @Value("${ewm.views-cache.stale-window:30s}") Duration staleWindow,
+                           @Value("${ewm.views-cache.max-size:10000}") int maxSize,
+                           @Value("${ewm.views-cache.max-local-viewers:1000}") int maxLocalViewers,
+                           @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this(enabled, ttl, staleWindow, maxSize, maxLocalViewers, virtualThreads, System::nanoTime);
+    }
+
+    // nanoClock подменяется в тестах, чтобы проверять истечение ttl без ожидания
+    EventViewsCache(boolean enabled, Duration ttl, Duration staleWindow, int maxSize, int maxLocalViewers,
+                    boolean virtualThreads, LongSupplier nanoClock) {
+        this.enabled = enabled;
+        this.nanoClock = nanoClock;
+        this.ttlNanos = ttl.toNanos();
+        this.staleWindowNanos = staleWindow.toNanos();
+        this.maxSize = maxSize;
+        this.maxLocalViewers = maxLocalViewers;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > EventViewsCache.this.maxSize;
+            }
+        };
+        // Один поток обновления ограничивает нагрузку на сервис статистики, виртуальный или нет
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("event-views-refresh").factory()
+                : Thread.ofPlatform().name("event-views-refresh").daemon().factory();
+        this.refreshExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(100), threadFactory, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    public Map<Long, Long> getViews(List<Long> eventIds, Function<List<Long>, Map<Long, Long>> loader) {
+        if (!enabled) {
+            return loader.apply(eventIds);
+        }
+
+        Map<Long, Long> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        List<Long> stale = new ArrayList<>();
+        long now = nanoClock.getAsLong();
+
+        lock.lock();
+        try {
+            for (Long eventId : eventIds) {
+                Entry entry = entries.get(eventId);
+                long age = entry == null ? Long.MAX_VALUE : now - entry.loadedAt();
+                if (age < ttlNanos) {
+                    result.put(eventId, entry.currentViews());
+                } else if (age < ttlNanos + staleWindowNanos) {
+                    result.put(eventId, entry.currentViews());
+                    stale.add(eventId);
+                } else {
+                    missing.add(eventId);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (!stale.isEmpty()) {
+            refreshExecutor.execute(() -> {
+                try {
+                    load(stale, loader);
+                } catch (RuntimeException e) {
+                    log.warn("Не удалось обновить просмотры событий {}: {}", stale, e.getMessage());
+                }
+            });
+        }
+        if (!missing.isEmpty()) {
+            result.putAll(load(missing, loader));
+        }
+        return result;
+    }
+
+    /**
+     * Учитывает просмотр, только что отправленный в статистику, без повторного запроса к ней.
+     * Загрузка этого события, начатая раньше, могла его не увидеть, поэтому ее результат не кэшируется.
+     */
+    public void recordView(Long eventId, String ip) {
+        if (!enabled) {
+            return;
+        }
+        PendingLoad pending = inFlight.get(eventId);
+        if (pending != null) {
+            pending.markViewed();
+        }
+        lock.lock();
+        try {
+            Entry entry = entries.get(eventId);
+            if (entry != null) {
+                entry.viewers().add(ip);
+                // Популярное событие не должно копить ip до конца ttl: проще перечитать его из статистики
+                if (entry.viewers().size() > maxLocalViewers) {
+                    entries.remove(eventId);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private Map<Long, Long> load(List<Long> eventIds, Function<List<Long>, Map<Long, Long>> loader) {
+        Map<Long, PendingLoad> owned = new HashMap<>();
+        Map<Long, PendingLoad> awaited = new HashMap<>();
+        for (Long eventId : eventIds) {
+            PendingLoad pending = new PendingLoad();
+            PendingLoad existing = inFlight.putIfAbsent(eventId, pending);
+            if (existing == null) {
+                owned.put(eventId, pending);
+            } else {
+                awaited.put(eventId, existing);
+            }
+        }
+
+        Map<Long, Long> result = new HashMap<>();
+        if (!owned.isEmpty()) {
+            try {
+                Map<Long, Long> loaded = loader.apply(List.copyOf(owned.keySet()));
+                long loadedAt = nanoClock.getAsLong();
+                lock.lock();
+                try {
+                    owned.forEach((eventId, pending) -> {
+                        Long views = loaded.getOrDefault(eventId, 0L);
+                        result.put(eventId, views);
+                        // Ответ мог не учесть просмотр, пришедший во время запроса: отдаем его, но не кэшируем
+                        if (!pending.isViewed()) {
+                            entries.put(eventId, new Entry(views, loadedAt, new HashSet<>()));
+                        }
+                    });
+                } finally {
+                    lock.unlock();
+                }
+                owned.forEach((eventId, pending) -> pending.future().complete(result.get(eventId)));
+            } catch (RuntimeException e) {
+                owned.values().forEach(pending -> pending.future().completeExceptionally(e));
+                throw e;
+            } finally {
+                owned.forEach(inFlight::remove);
+            }
+        }
+
+        awaited.forEach((eventId, pending) -> {
+            try {
+                result.put(eventId, pending.future().join());
+            } catch (CompletionException e) {
+                log.warn("Не удалось получить просмотры события {}: {}", eventId, e.getCause().getMessage());
+                result.put(eventId, 0L);
+            }
+        });
+        return result;
+    }
+
+    // viewers - ip, записанные этим узлом после загрузки; меняется только под lock
+    private record Entry(long views, long loadedAt, Set<String> viewers) {
+        // Уникальных просмотров не меньше загруженных и не меньше числа разных ip, открывших событие после
+        // загрузки. Сумма завысила бы счетчик повторным посетителям, поэтому берется нижняя оценка:
+        // для нового события она точна (0 -> 1), в остальных случаях отстает не дольше ttl
+        long currentViews() {
+            return Math.max(views, viewers.size());
+        }
+    }
+
+    private static final class PendingLoad {
+        private final CompletableFuture<Long> future = new CompletableFuture<>();
+        private volatile boolean viewed;
+
+        CompletableFuture<Long> future() {
+            return future;
+        }
+
+        void markViewed() {
+            viewed = true;
+        }
+
+        boolean isViewed() {
+            return viewed;
+        }
+    }
+}
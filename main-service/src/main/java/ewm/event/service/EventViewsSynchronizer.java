@@ -0,0 +1,120 @@
+package ewm.event.service;
+
+import ewm.event.repository.EventRepository;
+import ewm.event.repository.EventViewsProjection;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Переносит число просмотров из сервиса статистики в колонку events.views, по которой
+ * сортируется публичный поиск. После полного прохода обновляются только события,
+ * получившие hit'ы с прошлого запуска.
+ */
+@Component
+@Slf4j
+public class EventViewsSynchronizer {
+    private final EventRepository eventRepository;
+    private final EventStatsService eventStatsService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration overlap;
+    private final Duration fullSyncInterval;
+
+    private LocalDateTime lastSync;
+    private LocalDateTime lastFullSync;
+
+    public EventViewsSynchronizer(EventRepository eventRepository,
+                                  EventStatsService eventStatsService,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${ewm.views-sync.enabled:true}") boolean enabled,
+                                  @Value("${ewm.views-sync.batch-size:500}") int batchSize,
+                                  @Value("${ewm.views-sync.overlap:1m}") Duration overlap,
+                                  @Value("${ewm.views-sync.full-interval:1h}") Duration fullSyncInterval) {
+        this.eventRepository = eventRepository;
+        this.eventStatsService = eventStatsService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.overlap = overlap;
+        this.fullSyncInterval = fullSyncInterval;
+    }
+
+    @Scheduled(fixedDelayString = "${ewm.views-sync.interval:PT10S}")
+    public void sync() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            if (lastFullSync == null || lastFullSync.plus(fullSyncInterval).isBefore(now)) {
+                syncAll();
+                lastFullSync = now;
+            } else {
+                // Hit'ы могут доезжать с задержкой, поэтому окно захватывает часть предыдущего
+                syncViewedBetween(lastSync.minus(overlap), now);
+            }
+            lastSync = now;
+        } catch (RuntimeException e) {
+            log.warn("Не удалось синхронизировать просмотры событий: {}", e.getMessage());
+        }
+    }
+
+    private void syncAll() {
+        int updated = 0;
+        long afterId = 0L;
+        List<EventViewsProjection> page;
+        do {
+            page = eventRepository.findPublishedViewsAfter(afterId, PageRequest.of(0, batchSize));
+            if (!page.isEmpty()) {
+                updated += syncPage(page);
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == batchSize);
+        log.info("Полная синхронизация просмотров: обновлено {} событий", updated);
+    }
+
+    private void syncViewedBetween(LocalDateTime start, LocalDateTime end) {
+        List<Long> eventIds = new ArrayList<>(eventStatsService.findEventsViewedBetween(start, end));
+        int updated = 0;
+        for (int from = 0; from < eventIds.size(); from += batchSize) {
+            List<Long> chunk = eventIds.subList(from, Math.min(from + batchSize, eventIds.size()));
+            updated += syncPage(eventRepository.findPublishedViewsByIds(chunk));
+        }
+        log.debug("Синхронизация просмотров: просмотрено {} событий, обновлено {}", eventIds.size(), updated);
+    }
+
+    private int syncPage(List<EventViewsProjection> events) {
+        if (events.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime start = events.stream()
+                .map(EventViewsProjection::getCreatedAt)
+                .min(Comparator.naturalOrder())
+                .orElseThrow();
+        Map<Long, Long> views = eventStatsService.loadViews(
+                events.stream().map(EventViewsProjection::getId).toList(), start);
+
+        List<EventViewsProjection> changed = events.stream()
+                .filter(event -> !views.getOrDefault(event.getId(), 0L).equals(event.getViews()))
+                .toList();
+        if (!changed.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> changed.forEach(event ->
+                    eventRepository.updateViews(event.getId(), views.getOrDefault(event.getId(), 0L))));
+        }
+        return changed.size();
+    }
+}
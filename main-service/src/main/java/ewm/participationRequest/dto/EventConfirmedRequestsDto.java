@@ -1,11 +0,0 @@
-package ewm.participationRequest.dto;
-
-import lombok.AllArgsConstructor;
-import lombok.Data;
-
-@Data
-@AllArgsConstructor
-public class EventConfirmedRequestsDto {
-    private Long eventId;
-    private Long confirmedCount;
-}
\ No newline at end of file
@@ -2,6 +2,7 @@ package ewm.participationRequest.mapper;
 
 import ewm.participationRequest.dto.ParticipationRequestDto;
 import ewm.participationRequest.model.ParticipationRequest;
+import ewm.participationRequest.repository.ParticipationRequestProjection;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -12,4 +13,8 @@ public interface ParticipationRequestMapper {
     @Mapping(source = "requester.id", target = "requester")
     @Mapping(source = "status", target = "status")
     ParticipationRequestDto toDto(ParticipationRequest request);
+
+    @Mapping(source = "eventId", target = "event")
+    @Mapping(source = "requesterId", target = "requester")
+    ParticipationRequestDto toDto(ParticipationRequestProjection request);
 }
@@ -0,0 +1,17 @@
+package ewm.participationRequest.repository;
+
+import ewm.participationRequest.model.RequestStatus;
+
+import java.time.LocalDateTime;
+
+public interface ParticipationRequestProjection {
+    Long getId();
+
+    LocalDateTime getCreated();
+
+    Long getEventId();
+
+    Long getRequesterId();
+
+    RequestStatus getStatus();
+}
@@ -1,6 +1,5 @@
 package ewm.participationRequest.repository;
 
-import ewm.participationRequest.dto.EventConfirmedRequestsDto;
 import ewm.participationRequest.model.ParticipationRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -13,35 +12,18 @@ public interface ParticipationRequestRepository extends JpaRepository<Participat
 
     boolean existsByEventIdAndRequesterId(Long eventId, Long userId);
 
-    @Query("SELECT NEW ewm.participationRequest.dto.EventConfirmedRequestsDto(" +
-            "pr.event.id, COUNT(pr)) " +
-            "FROM ParticipationRequest pr " +
-            "WHERE pr.event.id IN :eventIds AND pr.status = ewm.participationRequest.model.RequestStatus.CONFIRMED " +
-            "GROUP BY pr.event.id")
-    List<EventConfirmedRequestsDto> findConfirmedRequestsCountByEventIds(@Param("eventIds") List<Long> eventIds);
-
-    @Query("SELECT pr FROM ParticipationRequest pr " +
-            "LEFT JOIN FETCH pr.event " +
-            "LEFT JOIN FETCH pr.requester " +
+    // Для ответа нужны только id события и автора заявки: они берутся из внешних ключей без JOIN
+    @Query("SELECT pr.id AS id, pr.created AS created, pr.event.id AS eventId, pr.requester.id AS requesterId, " +
+            "pr.status AS status FROM ParticipationRequest pr " +
             "WHERE pr.requester.id = :userId")
-    List<ParticipationRequest> findAllByRequesterIdWithEventAndRequester(@Param("userId") Long userId);
+    List<ParticipationRequestProjection> findAllByRequesterId(@Param("userId") Long userId);
 
-    @Query("SELECT pr FROM ParticipationRequest pr " +
-            "LEFT JOIN FETCH pr.event " +
-            "LEFT JOIN FETCH pr.requester " +
+    @Query("SELECT pr.id AS id, pr.created AS created, pr.event.id AS eventId, pr.requester.id AS requesterId, " +
+            "pr.status AS status FROM ParticipationRequest pr " +
             "WHERE pr.event.id = :eventId")
-    List<ParticipationRequest> findAllByEventIdWithEventAndRequester(@Param("eventId") Long eventId);
-
-    @Query("SELECT pr FROM ParticipationRequest pr " +
-            "LEFT JOIN FETCH pr.event " +
-            "LEFT JOIN FETCH pr.requester " +
-            "WHERE pr.id IN :requestIds")
-    List<ParticipationRequest> findAllByIdWithEventAndRequester(@Param("requestIds") List<Long> requestIds);
-
-    @Query("SELECT pr FROM ParticipationRequest pr " +
-            "LEFT JOIN FETCH pr.event " +
-            "LEFT JOIN FETCH pr.requester " +
-            "WHERE pr.id = :requestId AND pr.requester.id = :userId")
-    Optional<ParticipationRequest> findByIdWithEventAndRequester(@Param("requestId") Long requestId,
-                                                                 @Param("userId") Long userId);
+    List<ParticipationRequestProjection> findAllByEventId(@Param("eventId") Long eventId);
+
+    List<ParticipationRequest> findAllByIdIn(List<Long> requestIds);
+
+    Optional<ParticipationRequest> findByIdAndRequesterId(Long requestId, Long userId);
 }
\ No newline at end of file
@@ -1,7 +1,7 @@
 package ewm.participationRequest.service;
 import ewm.event.model.Event;
 import ewm.event.repository.EventRepository;
-import ewm.event.service.EventStatsService;
+import ewm.event.service.EventUpdatedEvent;
 import ewm.exception.ConflictException;
 import ewm.exception.NotFoundException;
 import ewm.participationRequest.dto.EventRequestStatusUpdateRequest;
@@ -15,13 +15,13 @@ import ewm.user.model.User;
 import ewm.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,7 +33,7 @@ public class ParticipationRequestServiceImpl implements ParticipationRequestServ
     private final UserRepository userRepository;
     private final EventRepository eventRepository;
     private final ParticipationRequestMapper requestMapper;
-    private final EventStatsService eventStatsService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public List<ParticipationRequestDto> getUserRequests(Long userId) {
@@ -41,7 +41,7 @@ public class ParticipationRequestServiceImpl implements ParticipationRequestServ
             throw new NotFoundException("Пользователь с id = " + userId + " не найден");
         }
 
-        return requestRepository.findAllByRequesterIdWithEventAndRequester(userId).stream()
+        return requestRepository.findAllByRequesterId(userId).stream()
                 .map(requestMapper::toDto)
                 .collect(Collectors.toList());
     }
@@ -66,10 +66,7 @@ public class ParticipationRequestServiceImpl implements ParticipationRequestServ
             throw new ConflictException("Запрос на участие в этом событии уже существует");
         }
 
-        Map<Long, Long> confirmedRequestsMap = eventStatsService.getConfirmedRequestsBatch(List.of(eventId));
-        Long confirmedRequests = confirmedRequestsMap.getOrDefault(eventId, 0L);
-
-        if (event.getParticipantLimit() > 0 && confirmedRequests >= event.getParticipantLimit()) {
+        if (event.getParticipantLimit() > 0 && event.getConfirmedRequests() >= event.getParticipantLimit()) {
             throw new ConflictException("Достигнут лимит участников для этого события");
         }
 
@@ -89,6 +86,13 @@ public class ParticipationRequestServiceImpl implements ParticipationRequestServ
                 .status(status)
                 .build();
 
+        if (status == RequestStatus.CONFIRMED) {
+            if (eventRepository.increaseConfirmedRequests(eventId, 1) == 0) {
+                throw new ConflictException("Достигнут лимит участников для этого события");
+            }
+            eventPublisher.publishEvent(new EventUpdatedEvent(eventId));
+        }
+
         ParticipationRequest savedRequest = requestRepository.save(request);
         log.info("Запрос создан с id: {}", savedRequest.getId());
 
@@ -123,8 +127,7 @@ public class ParticipationRequestServiceImpl implements ParticipationRequestServ
             throw new ConflictException("Можно установить только статусы CONFIRMED или REJECTED");
         }
 
-        List<ParticipationRequest> requestsToUpdate =
-                requestRepository.findAllByIdWithEventAndRequester(request.getRequestIds());
+        List<ParticipationRequest> requestsToUpdate = requestRepository.findAllByIdIn(request.getRequestIds());
 
         if (requestsToUpdate.size() != request.getRequestIds().size()) {
             throw new NotFoundException("Некоторые запросы не найдены");
@@ -133,8 +136,7 @@ public class ParticipationRequestServiceImpl implements ParticipationRequestServ
         List<ParticipationRequestDto> confirmedRequests = new ArrayList<>();
         List<ParticipationRequestDto> rejectedRequests = new ArrayList<>();
 
-        Map<Long, Long> confirmedRequestsMap = eventStatsService.getConfirmedRequestsBatch(List.of(eventId));
-        Long currentConfirmedCount = confirmedRequestsMap.getOrDefault(eventId, 0L);
+        long currentConfirmedCount = event.getConfirmedRequests();
 
         int participantLimit = event.getParticipantLimit() != null ? event.getParticipantLimit() : 0;
 
@@ -163,6 +165,15 @@ public class ParticipationRequestServiceImpl implements ParticipationRequestServ
             }
         }
 
+        // Условный UPDATE не даст превысить лимит, если параллельно подтвердили другие заявки
+        if (!confirmedRequests.isEmpty()
+                && eventRepository.increaseConfirmedRequests(eventId, confirmedRequests.size()) == 0) {
+            throw new ConflictException("Достигнут лимит участников для события");
+        }
+        if (!confirmedRequests.isEmpty()) {
+            eventPublisher.publishEvent(new EventUpdatedEvent(eventId));
+        }
+
         requestRepository.saveAll(requestsToUpdate);
 
         log.info("Обновлено статусов: подтверждено - {}, отклонено - {}",
@@ -178,9 +189,13 @@ public class ParticipationRequestServiceImpl implements ParticipationRequestServ
     @Override
     @Transactional
     public ParticipationRequestDto cancelRequest(Long userId, Long requestId) {
-        ParticipationRequest request = requestRepository.findByIdWithEventAndRequester(requestId, userId)
+        ParticipationRequest request = requestRepository.findByIdAndRequesterId(requestId, userId)
                 .orElseThrow(() -> new NotFoundException("Запрос с id=" + requestId + " не найден"));
 
+        if (request.getStatus() == RequestStatus.CONFIRMED) {
+            eventRepository.decreaseConfirmedRequests(request.getEvent().getId());
+            eventPublisher.publishEvent(new EventUpdatedEvent(request.getEvent().getId()));
+        }
         request.setStatus(RequestStatus.CANCELED);
         ParticipationRequest updatedRequest = requestRepository.save(request);
 
@@ -196,7 +211,7 @@ public class ParticipationRequestServiceImpl implements ParticipationRequestServ
             throw new ConflictException("Пользователь не является инициатором события");
         }
 
-        return requestRepository.findAllByEventIdWithEventAndRequester(eventId).stream()
+        return requestRepository.findAllByEventId(eventId).stream()
                 .map(requestMapper::toDto)
                 .collect(Collectors.toList());
     }
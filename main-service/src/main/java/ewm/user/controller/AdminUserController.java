@@ -3,6 +3,7 @@ package ewm.user.controller;
 import ewm.user.dto.NewUserRequest;
 import ewm.user.dto.UserResponse;
 import ewm.user.service.UserService;
+import ewm.util.pagination.PaginationUtils;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
@@ -10,6 +11,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -28,12 +30,13 @@ public class AdminUserController {
     }
 
     @GetMapping
-    public List<UserResponse> getUsers(
+    public ResponseEntity<List<UserResponse>> getUsers(
             @RequestParam(required = false) List<Long> ids,
             @RequestParam(defaultValue = "0") @PositiveOrZero int from,
-            @RequestParam(defaultValue = "10") @Positive int size) {
+            @RequestParam(defaultValue = "10") @Positive int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
         Pageable pageable = PageRequest.of(from / size, size);
-        return userService.getUsers(ids, pageable);
+        return PaginationUtils.toResponse(userService.getUsers(ids, pageable, withTotal));
     }
 
     @DeleteMapping("/{userId}")
@@ -5,13 +5,14 @@ import ewm.user.dto.UserResponse;
 import ewm.user.dto.UserShortDto;
 import ewm.user.model.User;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
 public interface UserService {
     UserResponse createUser(NewUserRequest userRequest);
 
-    List<UserResponse> getUsers(List<Long> ids, Pageable pageable);
+    Slice<UserResponse> getUsers(List<Long> ids, Pageable pageable, boolean withTotal);
 
     UserShortDto getUserById(Long userId);
 
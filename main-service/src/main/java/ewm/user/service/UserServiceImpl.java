@@ -5,6 +5,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ewm.user.dto.NewUserRequest;
@@ -14,9 +15,9 @@ import ewm.user.model.User;
 import ewm.user.repository.UserRepository;
 import ewm.exception.NotFoundException;
 import ewm.exception.ConflictException;
+import ewm.util.pagination.PaginationUtils;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -43,7 +44,7 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<UserResponse> getUsers(List<Long> ids, Pageable pageable) {
+    public Slice<UserResponse> getUsers(List<Long> ids, Pageable pageable, boolean withTotal) {
         log.debug("Получение списка пользователей. IDs: {}, page: {}, size: {}",
                 ids, pageable.getPageNumber(), pageable.getPageSize());
 
@@ -53,22 +54,18 @@ public class UserServiceImpl implements UserService {
                 org.springframework.data.domain.Sort.by(org.springframework.data.domain.Sort.Direction.ASC, "id")
         );
 
-        List<UserResponse> users;
+        Slice<UserResponse> users;
         if (ids == null || ids.isEmpty()) {
             log.debug("Запрос всех пользователей с пагинацией");
-            users = userRepository.findAll(sortedPageable)
-                    .stream()
-                    .map(userMapper::toDto)
-                    .collect(Collectors.toList());
+            users = PaginationUtils.withTotal(userRepository.findAllBy(sortedPageable), withTotal,
+                    userRepository::count).map(userMapper::toDto);
         } else {
             log.debug("Запрос пользователей по списку IDs: {}", ids);
-            users = userRepository.findByIdIn(ids, sortedPageable)
-                    .stream()
-                    .map(userMapper::toDto)
-                    .collect(Collectors.toList());
+            users = PaginationUtils.withTotal(userRepository.findByIdIn(ids, sortedPageable), withTotal,
+                    () -> userRepository.countByIdIn(ids)).map(userMapper::toDto);
         }
 
-        log.debug("Найдено пользователей: {}", users.size());
+        log.debug("Найдено пользователей: {}", users.getNumberOfElements());
         return users;
     }
 
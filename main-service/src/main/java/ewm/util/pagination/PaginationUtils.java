@@ -0,0 +1,43 @@
+package ewm.util.pagination;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Списки отдаются срезами (Slice) без COUNT(*). Общее количество считается, только если клиент
+ * явно попросил withTotal=true, и передается в заголовке X-Total-Count.
+ */
+public class PaginationUtils {
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+    public static <T> Slice<T> withTotal(Slice<T> slice, boolean withTotal, LongSupplier totalSupplier) {
+        if (!withTotal) {
+            return slice;
+        }
+        // Для неполной первой страницы количество известно и без запроса
+        return PageableExecutionUtils.getPage(slice.getContent(), slice.getPageable(), totalSupplier);
+    }
+
+    public static <T, R> Slice<R> map(Slice<T> slice, Function<List<T>, List<R>> mapper) {
+        List<R> content = mapper.apply(slice.getContent());
+        if (slice instanceof Page<T> page) {
+            return PageableExecutionUtils.getPage(content, page.getPageable(), page::getTotalElements);
+        }
+        return new SliceImpl<>(content, slice.getPageable(), slice.hasNext());
+    }
+
+    public static <T> ResponseEntity<List<T>> toResponse(Slice<T> slice) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (slice instanceof Page<T> page) {
+            response.header(TOTAL_COUNT_HEADER, String.valueOf(page.getTotalElements()));
+        }
+        return response.body(slice.getContent());
+    }
+}
@@ -0,0 +1,61 @@
+-- Схема в том виде, в котором ее создавал ddl-auto=update. Существующие БД получают baseline 0
+-- (spring.flyway.baseline-on-migrate) и проходят все миграции, начиная с этой: она идемпотентна.
+CREATE TABLE IF NOT EXISTS users (
+    id    BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name  VARCHAR(250) NOT NULL,
+    email VARCHAR(254) NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS categories (
+    id   BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(50) NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS events (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title              VARCHAR(120)  NOT NULL,
+    annotation         VARCHAR(2000) NOT NULL,
+    description        VARCHAR(7000) NOT NULL,
+    category_id        BIGINT REFERENCES categories (id),
+    initiator_id       BIGINT REFERENCES users (id),
+    created_on         TIMESTAMP(6)  NOT NULL,
+    event_date         TIMESTAMP(6)  NOT NULL,
+    published_on       TIMESTAMP(6),
+    latitude           FLOAT4,
+    longitude          FLOAT4,
+    paid               BOOLEAN       NOT NULL,
+    participant_limit  INTEGER       NOT NULL,
+    request_moderation BOOLEAN       NOT NULL,
+    state              VARCHAR(20)   NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS participation_requests (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    event_id     BIGINT REFERENCES events (id),
+    requester_id BIGINT REFERENCES users (id),
+    created      TIMESTAMP(6),
+    status       VARCHAR(255) CHECK (status IN ('PENDING', 'CONFIRMED', 'CANCELED', 'REJECTED'))
+);
+
+CREATE TABLE IF NOT EXISTS compilations (
+    id     BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title  VARCHAR(50) NOT NULL UNIQUE,
+    pinned BOOLEAN     NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS compilation_events (
+    compilation_id BIGINT NOT NULL REFERENCES compilations (id),
+    event_id       BIGINT NOT NULL REFERENCES events (id),
+    PRIMARY KEY (compilation_id, event_id)
+);
+
+CREATE TABLE IF NOT EXISTS comments (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    text         VARCHAR(2000) NOT NULL,
+    author_id    BIGINT        NOT NULL REFERENCES users (id),
+    event_id     BIGINT        NOT NULL REFERENCES events (id),
+    created_date TIMESTAMP(6)  NOT NULL,
+    updated_date TIMESTAMP(6),
+    is_edited    BOOLEAN       NOT NULL,
+    is_deleted   BOOLEAN       NOT NULL
+);
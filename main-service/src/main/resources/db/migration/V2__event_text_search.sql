@@ -0,0 +1,6 @@
+-- Вычисляемая колонка для полнотекстового поиска: пересчитывается самой БД при каждой записи события
+ALTER TABLE events ADD COLUMN IF NOT EXISTS search_vector TSVECTOR GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple', coalesce(annotation, '')), 'A') ||
+    setweight(to_tsvector('simple', coalesce(description, '')), 'B')) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_events_search_vector ON events USING GIN (search_vector);
@@ -0,0 +1,24 @@
+-- Публичный и админский поиск: state = 'PUBLISHED' AND event_date >= now(), страница по id
+CREATE INDEX IF NOT EXISTS idx_events_state_event_date ON events (state, event_date, id);
+
+-- События пользователя: WHERE initiator_id = ? ORDER BY created_on DESC
+CREATE INDEX IF NOT EXISTS idx_events_initiator_created ON events (initiator_id, created_on DESC);
+
+-- Фильтр по категориям и проверка перед удалением категории
+CREATE INDEX IF NOT EXISTS idx_events_category ON events (category_id);
+
+-- Заявки на событие и пересчет confirmed_requests по статусу
+CREATE INDEX IF NOT EXISTS idx_requests_event_status ON participation_requests (event_id, status);
+
+-- Заявки пользователя и проверка дубля (event_id, requester_id)
+CREATE INDEX IF NOT EXISTS idx_requests_requester_event ON participation_requests (requester_id, event_id);
+
+-- Удаленные комментарии не читаются, поэтому индексы частичные
+CREATE INDEX IF NOT EXISTS idx_comments_event_created ON comments (event_id, created_date DESC)
+    WHERE is_deleted = FALSE;
+
+CREATE INDEX IF NOT EXISTS idx_comments_author_created ON comments (author_id, created_date DESC)
+    WHERE is_deleted = FALSE;
+
+-- Обратный поиск подборок по событию; первичный ключ начинается с compilation_id
+CREATE INDEX IF NOT EXISTS idx_compilation_events_event ON compilation_events (event_id);
@@ -0,0 +1,15 @@
+-- Денормализованные счетчики событий. На существующих БД столбцы добавляются к уже заполненной
+-- таблице, поэтому число подтвержденных заявок сразу пересчитывается по participation_requests.
+ALTER TABLE events ADD COLUMN IF NOT EXISTS confirmed_requests BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE events ADD COLUMN IF NOT EXISTS views BIGINT NOT NULL DEFAULT 0;
+
+UPDATE events e
+SET confirmed_requests = c.confirmed
+FROM (SELECT event_id, COUNT(*) AS confirmed
+      FROM participation_requests
+      WHERE status = 'CONFIRMED'
+      GROUP BY event_id) c
+WHERE e.id = c.event_id AND e.confirmed_requests <> c.confirmed;
+
+-- Сортировка опубликованных событий по просмотрам
+CREATE INDEX IF NOT EXISTS idx_events_state_views ON events (state, views DESC, id);
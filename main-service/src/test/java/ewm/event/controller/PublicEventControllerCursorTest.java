@@ -0,0 +1,82 @@
+package ewm.event.controller;
+
+import ewm.error.ErrorHandler;
+import ewm.event.dto.CursorPage;
+import ewm.event.dto.PublicEventSearchRequest;
+import ewm.event.service.EventCursor;
+import ewm.event.service.EventService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Курсор приходит из query-параметра как есть: любой испорченный курсор должен давать 400, а не 500.
+ */
+class PublicEventControllerCursorTest {
+    private static final Sort BY_ID = Sort.by(Sort.Direction.ASC, "id");
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        EventService eventService = mock(EventService.class);
+        when(eventService.getPublicEventsByCursor(any(), anyInt(), anyString())).thenAnswer(invocation -> {
+            PublicEventSearchRequest request = invocation.getArgument(0);
+            EventCursor.decode(request.getCursor(), BY_ID);
+            return new CursorPage<>(List.of(), null);
+        });
+        mockMvc = MockMvcBuilders.standaloneSetup(new PublicEventController(eventService))
+                .setControllerAdvice(new ErrorHandler())
+                .build();
+    }
+
+    @Test
+    void acceptsValidCursor() throws Exception {
+        String cursor = EventCursor.encode(ScrollPosition.forward(Map.of("id", 42L)), BY_ID);
+
+        mockMvc.perform(get("/events").param("cursor", cursor))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void malformedBase64IsBadRequest() throws Exception {
+        mockMvc.perform(get("/events").param("cursor", "!!!not-base64"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400));
+    }
+
+    @Test
+    void cursorOfAnotherSortIsBadRequest() throws Exception {
+        mockMvc.perform(get("/events").param("cursor", encodeRaw("views=10|id=42")))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void cursorWithoutIdValueIsBadRequest() throws Exception {
+        mockMvc.perform(get("/events").param("cursor", encodeRaw("id=")))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/events").param("cursor", encodeRaw("views=10")))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,136 @@
+package ewm.event.repository.specification;
+
+import ewm.categories.model.Category;
+import ewm.event.model.Event;
+import ewm.event.repository.search.TextSearchQuery;
+import ewm.user.model.User;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * SQL полнотекстового поиска под PostgreSQLDialect. Запросы только строятся: соединение H2 не знает
+ * tsvector, поэтому выполнение падает, а текст запроса перехватывается до отправки в БД.
+ * Поведение на настоящем PostgreSQL проверяет {@link EventTextSearchPostgresTest}.
+ */
+class EventSpecificationsPostgresSqlTest {
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    private static SessionFactory sessionFactory;
+
+    @BeforeAll
+    static void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Event.class)
+                .addAnnotatedClass(Category.class)
+                .addAnnotatedClass(User.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:event-specifications-pg;MODE=PostgreSQL")
+                .setProperty(AvailableSettings.DIALECT, PostgreSQLDialect.class.getName())
+                .setProperty(AvailableSettings.ALLOW_METADATA_ON_BOOT, "false")
+                .setStatementInspector(sql -> {
+                    statements.add(sql);
+                    return sql;
+                })
+                .buildSessionFactory();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        sessionFactory.close();
+    }
+
+    @BeforeEach
+    void clearStatements() {
+        statements.clear();
+    }
+
+    @Test
+    void containsTextMatchesSearchVectorOfSameRow() {
+        String sql = renderSelect(EventSpecifications.containsText("Джаз"));
+
+        assertThat(sql)
+                .contains("(e1_0.search_vector @@ to_tsquery('simple', ")
+                .doesNotContain("like")
+                .doesNotContainIgnoringCase("in (select")
+                .doesNotContainIgnoringCase("order by");
+    }
+
+    @Test
+    void orderByTextRankSortsByRankThenId() {
+        String sql = renderSelect(EventSpecifications.containsText("джаз")
+                .and(EventSpecifications.orderByTextRank("джаз")));
+
+        assertThat(sql)
+                .contains("e1_0.search_vector @@ to_tsquery('simple', ")
+                .containsPattern("order by ts_rank_cd\\(e1_0\\.search_vector, to_tsquery\\('simple', [^)]+\\)\\) desc,"
+                        + "\\s*e1_0\\.id")
+                .doesNotContainIgnoringCase("in (select");
+    }
+
+    @Test
+    void countQueryIsNotOrdered() {
+        Specification<Event> spec = EventSpecifications.containsText("джаз")
+                .and(EventSpecifications.orderByTextRank("джаз"));
+
+        try (Session session = sessionFactory.openSession()) {
+            CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
+            CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+            Root<Event> root = query.from(Event.class);
+            query.where(spec.toPredicate(root, query, criteriaBuilder));
+            query.select(criteriaBuilder.count(root));
+
+            assertThatThrownBy(() -> session.createQuery(query).getSingleResult()).isNotNull();
+        }
+
+        assertThat(statements).singleElement().satisfies(sql -> assertThat(sql)
+                .contains("search_vector @@ to_tsquery")
+                .doesNotContain("ts_rank_cd")
+                .doesNotContainIgnoringCase("order by"));
+    }
+
+    @Test
+    void textWithoutWordsFallsBackToLike() {
+        String sql = renderSelect(EventSpecifications.containsText("-"));
+
+        assertThat(sql)
+                .contains("lower(e1_0.annotation) like")
+                .doesNotContain("search_vector");
+    }
+
+    @Test
+    void everyWordMustStartSomeWord() {
+        // Поиск идет по началу слов: "церт" больше не находит "концерт", как находил поиск подстроки
+        assertThat(TextSearchQuery.toTsQuery("Церт")).isEqualTo("церт:*");
+        assertThat(TextSearchQuery.toTsQuery("Джаз-концерт, 2024!")).isEqualTo("джаз:* & концерт:* & 2024:*");
+        assertThat(TextSearchQuery.toTsQuery(" - ")).isNull();
+    }
+
+    private static String renderSelect(Specification<Event> spec) {
+        try (Session session = sessionFactory.openSession()) {
+            CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
+            CriteriaQuery<Event> query = criteriaBuilder.createQuery(Event.class);
+            Root<Event> root = query.from(Event.class);
+            query.where(spec.toPredicate(root, query, criteriaBuilder));
+
+            assertThatThrownBy(() -> session.createQuery(query).getResultList()).isNotNull();
+        }
+        assertThat(statements).hasSize(1);
+        return statements.get(0);
+    }
+}
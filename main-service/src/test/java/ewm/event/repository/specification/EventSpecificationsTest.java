@@ -0,0 +1,154 @@
+package ewm.event.repository.specification;
+
+import ewm.categories.model.Category;
+import ewm.event.model.Event;
+import ewm.event.model.EventLocation;
+import ewm.event.model.EventState;
+import ewm.event.repository.search.EventTextSearchFunctionContributor;
+import ewm.user.model.User;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.sqm.function.SqmFunctionRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Поиск по тексту на H2: функции регистрируются через FunctionContributor из META-INF/services,
+ * в H2 они сводятся к поиску подстроки без ранжирования.
+ */
+class EventSpecificationsTest {
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    private static SessionFactory sessionFactory;
+    private static Long jazzInAnnotation;
+    private static Long jazzInDescription;
+    private static Long rock;
+
+    @BeforeAll
+    static void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Event.class)
+                .addAnnotatedClass(Category.class)
+                .addAnnotatedClass(User.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:event-specifications")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setStatementInspector(sql -> {
+                    statements.add(sql);
+                    return sql;
+                })
+                .buildSessionFactory();
+
+        sessionFactory.inTransaction(session -> {
+            jazzInAnnotation = persistEvent(session, "Вечер ДЖАЗА в парке", "Живая музыка");
+            rock = persistEvent(session, "Рок-фестиваль", "Три сцены и фудкорт");
+            jazzInDescription = persistEvent(session, "Концерт", "Программа: джаз и блюз");
+        });
+    }
+
+    @AfterAll
+    static void tearDown() {
+        sessionFactory.close();
+    }
+
+    @BeforeEach
+    void clearStatements() {
+        statements.clear();
+    }
+
+    @Test
+    void searchFunctionsAreRegistered() {
+        SqmFunctionRegistry functions = sessionFactory.unwrap(SessionFactoryImplementor.class)
+                .getQueryEngine().getSqmFunctionRegistry();
+
+        assertThat(functions.findFunctionDescriptor(EventTextSearchFunctionContributor.MATCH_FUNCTION)).isNotNull();
+        assertThat(functions.findFunctionDescriptor(EventTextSearchFunctionContributor.RANK_FUNCTION)).isNotNull();
+    }
+
+    @Test
+    void containsTextMatchesAnnotationOrDescriptionIgnoringCase() {
+        List<Long> ids = findIds(EventSpecifications.containsText("джаз"));
+
+        assertThat(ids).containsExactlyInAnyOrder(jazzInAnnotation, jazzInDescription);
+        // Функция обращается к колонкам той же строки, а не к подзапросу по events
+        assertThat(statements).anySatisfy(sql -> assertThat(sql)
+                .contains("lower(e1_0.annotation) like")
+                .doesNotContainIgnoringCase("in (select"));
+    }
+
+    @Test
+    void containsTextWithRelevanceOrderingSortsMatchesById() {
+        List<Long> ids = findIds(EventSpecifications.containsText("джаз")
+                .and(EventSpecifications.orderByTextRank("джаз")));
+
+        // В H2 ранг у всех совпадений одинаковый, порядок задает id
+        assertThat(ids).containsExactly(jazzInAnnotation, jazzInDescription);
+    }
+
+    @Test
+    void containsTextWithRelevanceOrderingCountsWithoutOrdering() {
+        Specification<Event> spec = EventSpecifications.containsText("джаз")
+                .and(EventSpecifications.orderByTextRank("джаз"));
+
+        try (Session session = sessionFactory.openSession()) {
+            CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
+            CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+            Root<Event> root = query.from(Event.class);
+            query.where(spec.toPredicate(root, query, criteriaBuilder));
+            query.select(criteriaBuilder.count(root));
+
+            assertThat(session.createQuery(query).getSingleResult()).isEqualTo(2L);
+        }
+    }
+
+    @Test
+    void containsTextWithoutWordsFallsBackToLike() {
+        assertThat(findIds(EventSpecifications.containsText("-"))).containsExactly(rock);
+    }
+
+    @Test
+    void containsTextWithBlankTextMatchesAll() {
+        assertThat(findIds(EventSpecifications.containsText("  ")))
+                .containsExactlyInAnyOrder(jazzInAnnotation, jazzInDescription, rock);
+    }
+
+    private static List<Long> findIds(Specification<Event> spec) {
+        try (Session session = sessionFactory.openSession()) {
+            CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
+            CriteriaQuery<Event> query = criteriaBuilder.createQuery(Event.class);
+            Root<Event> root = query.from(Event.class);
+            query.where(spec.toPredicate(root, query, criteriaBuilder));
+            return session.createQuery(query).getResultList().stream()
+                    .map(Event::getId)
+                    .toList();
+        }
+    }
+
+    private static Long persistEvent(Session session, String annotation, String description) {
+        Event event = Event.builder()
+                .title(annotation)
+                .annotation(annotation)
+                .description(description)
+                .createdAt(LocalDateTime.now())
+                .eventDate(LocalDateTime.now().plusDays(1))
+                .location(new EventLocation(55.75f, 37.62f))
+                .state(EventState.PUBLISHED.toString())
+                .build();
+        session.persist(event);
+        return event.getId();
+    }
+}
@@ -0,0 +1,139 @@
+package ewm.event.repository.specification;
+
+import ewm.categories.model.Category;
+import ewm.event.model.Event;
+import ewm.event.model.EventLocation;
+import ewm.event.model.EventState;
+import ewm.user.model.User;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.flywaydb.core.Flyway;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Полнотекстовый поиск на настоящем PostgreSQL. Запускается, если задан EWM_TEST_POSTGRES_URL
+ * (например, jdbc:postgresql://localhost:6542/main); схема создается миграциями Flyway в отдельной
+ * схеме и удаляется после тестов. Логин и пароль - EWM_TEST_POSTGRES_USER и EWM_TEST_POSTGRES_PASSWORD.
+ * База должна быть в кодировке UTF8: в SQL_ASCII to_tsvector не выделяет кириллические слова.
+ */
+@EnabledIfEnvironmentVariable(named = "EWM_TEST_POSTGRES_URL", matches = ".+")
+class EventTextSearchPostgresTest {
+    private static final String SCHEMA = "event_text_search_test";
+
+    private static Flyway flyway;
+    private static SessionFactory sessionFactory;
+    private static Long jazzInAnnotation;
+    private static Long jazzInDescription;
+    private static Long rock;
+
+    @BeforeAll
+    static void setUp() {
+        String url = System.getenv("EWM_TEST_POSTGRES_URL");
+        String separator = url.contains("?") ? "&" : "?";
+        String schemaUrl = url + separator + "currentSchema=" + SCHEMA;
+        String user = System.getenv().getOrDefault("EWM_TEST_POSTGRES_USER", "user");
+        String password = System.getenv().getOrDefault("EWM_TEST_POSTGRES_PASSWORD", "password");
+
+        flyway = Flyway.configure()
+                .dataSource(schemaUrl, user, password)
+                .schemas(SCHEMA)
+                .locations("classpath:db/migration")
+                .cleanDisabled(false)
+                .load();
+        flyway.clean();
+        flyway.migrate();
+
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Event.class)
+                .addAnnotatedClass(Category.class)
+                .addAnnotatedClass(User.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL, schemaUrl)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_USER, user)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_PASSWORD, password)
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "validate")
+                .buildSessionFactory();
+
+        sessionFactory.inTransaction(session -> {
+            jazzInAnnotation = persistEvent(session, "Вечер джаза в парке", "Живая музыка");
+            rock = persistEvent(session, "Рок-фестиваль", "Три сцены и фудкорт");
+            jazzInDescription = persistEvent(session, "Концерт", "Программа: ДЖАЗ и блюз");
+        });
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+        flyway.clean();
+    }
+
+    @Test
+    void matchesWordPrefixesInAnnotationAndDescription() {
+        assertThat(findIds(EventSpecifications.containsText("Джаз")))
+                .containsExactlyInAnyOrder(jazzInAnnotation, jazzInDescription);
+        assertThat(findIds(EventSpecifications.containsText("конц"))).containsExactly(jazzInDescription);
+        assertThat(findIds(EventSpecifications.containsText("фест"))).containsExactly(rock);
+    }
+
+    @Test
+    void doesNotMatchInsideWords() {
+        // Поиск подстроки находил "концерт" по "церт", поиск по началу слов - нет
+        assertThat(findIds(EventSpecifications.containsText("церт"))).isEmpty();
+        assertThat(findIds(EventSpecifications.containsText("азз"))).isEmpty();
+    }
+
+    @Test
+    void requiresEveryWord() {
+        assertThat(findIds(EventSpecifications.containsText("джаз блюз"))).containsExactly(jazzInDescription);
+        assertThat(findIds(EventSpecifications.containsText("джаз рок"))).isEmpty();
+    }
+
+    @Test
+    void ranksAnnotationMatchesAboveDescriptionMatches() {
+        Specification<Event> spec = EventSpecifications.containsText("джаз")
+                .and(EventSpecifications.orderByTextRank("джаз"));
+
+        assertThat(findIds(spec)).containsExactly(jazzInAnnotation, jazzInDescription);
+    }
+
+    private static List<Long> findIds(Specification<Event> spec) {
+        try (Session session = sessionFactory.openSession()) {
+            CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
+            CriteriaQuery<Event> query = criteriaBuilder.createQuery(Event.class);
+            Root<Event> root = query.from(Event.class);
+            query.where(spec.toPredicate(root, query, criteriaBuilder));
+            return session.createQuery(query).getResultList().stream()
+                    .map(Event::getId)
+                    .toList();
+        }
+    }
+
+    private static Long persistEvent(Session session, String annotation, String description) {
+        Event event = Event.builder()
+                .title(annotation)
+                .annotation(annotation)
+                .description(description)
+                .createdAt(LocalDateTime.now())
+                .eventDate(LocalDateTime.now().plusDays(1))
+                .location(new EventLocation(55.75f, 37.62f))
+                .state(EventState.PUBLISHED.toString())
+                .build();
+        session.persist(event);
+        return event.getId();
+    }
+}
@@ -0,0 +1,125 @@
+package ewm.event.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventCursorTest {
+    private static final Sort BY_ID = Sort.by(Sort.Direction.ASC, "id");
+    private static final Sort BY_VIEWS = Sort.by(Sort.Direction.DESC, "views").and(BY_ID);
+    private static final Sort BY_EVENT_DATE = Sort.by(Sort.Direction.DESC, "eventDate").and(BY_ID);
+
+    @Test
+    void roundTripsViewsCursor() {
+        KeysetScrollPosition position = roundTrip(keys("views", 1234L, "id", 42L), BY_VIEWS);
+
+        assertThat(position.getKeys()).containsExactly(Map.entry("views", 1234L), Map.entry("id", 42L));
+        assertThat(position.scrollsForward()).isTrue();
+    }
+
+    @Test
+    void roundTripsEventDateCursor() {
+        LocalDateTime eventDate = LocalDateTime.of(2024, 6, 1, 12, 0, 0);
+
+        KeysetScrollPosition position = roundTrip(keys("eventDate", eventDate, "id", 7L), BY_EVENT_DATE);
+
+        assertThat(position.getKeys()).containsExactly(Map.entry("eventDate", eventDate), Map.entry("id", 7L));
+    }
+
+    @Test
+    void roundTripsEventDateWithSecondsAndNanos() {
+        LocalDateTime eventDate = LocalDateTime.of(2024, 6, 1, 12, 0, 5, 123_000_000);
+
+        assertThat(roundTrip(keys("eventDate", eventDate, "id", 7L), BY_EVENT_DATE).getKeys())
+                .containsEntry("eventDate", eventDate);
+    }
+
+    @Test
+    void cursorIsUrlSafe() {
+        String cursor = EventCursor.encode(ScrollPosition.forward(keys("eventDate",
+                LocalDateTime.of(2024, 6, 1, 12, 0), "id", Long.MAX_VALUE)), BY_EVENT_DATE);
+
+        assertThat(cursor).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void blankCursorStartsFromBeginning() {
+        assertThat(EventCursor.decode(null, BY_ID).isInitial()).isTrue();
+        assertThat(EventCursor.decode(" ", BY_ID).isInitial()).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"!!!", "dmlld3M9MQ==+", "%%%"})
+    void rejectsMalformedBase64(String cursor) {
+        assertThatThrownBy(() -> EventCursor.decode(cursor, BY_ID))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Некорректный курсор");
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+            "views; id=2|views=1",
+            "views; eventDate=2024-06-01T12:00|id=2",
+            "views; views=1",
+            "views; views=1|id=2|id=3",
+            "views; views=1|",
+            "eventDate; views=1|id=2",
+            "id; views=1|id=2"
+    })
+    void rejectsCursorOfAnotherSort(String sortProperty, String raw) {
+        assertThatThrownBy(() -> EventCursor.decode(encodeRaw(raw), sort(sortProperty)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Курсор не соответствует параметрам сортировки");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"views=1|id=", "views=1|id=null", "views=abc|id=2", "views=1|id=99999999999999999999"})
+    void rejectsMissingOrInvalidValues(String raw) {
+        assertThatThrownBy(() -> EventCursor.decode(encodeRaw(raw), BY_VIEWS))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Некорректный курсор");
+    }
+
+    @Test
+    void rejectsInvalidEventDate() {
+        assertThatThrownBy(() -> EventCursor.decode(encodeRaw("eventDate=01.06.2024|id=2"), BY_EVENT_DATE))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Некорректный курсор");
+    }
+
+    private static Sort sort(String property) {
+        return switch (property) {
+            case "views" -> BY_VIEWS;
+            case "eventDate" -> BY_EVENT_DATE;
+            default -> BY_ID;
+        };
+    }
+
+    private static KeysetScrollPosition roundTrip(Map<String, Object> keys, Sort sort) {
+        return EventCursor.decode(EventCursor.encode(ScrollPosition.forward(keys), sort), sort);
+    }
+
+    private static Map<String, Object> keys(String first, Object firstValue, String second, Object secondValue) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put(first, firstValue);
+        keys.put(second, secondValue);
+        return keys;
+    }
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,104 @@
+package ewm.event.service;
+
+import client.StatsClient;
+import ewm.event.repository.EventRef;
+import model.ViewStatsDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EventStatsServiceTest {
+    private static final Duration VIEWS_TIMEOUT = Duration.ofMillis(200);
+    private static final List<EventRef> EVENTS = List.of(
+            new EventRef(1L, LocalDateTime.of(2024, 1, 1, 10, 0)),
+            new EventRef(2L, LocalDateTime.of(2024, 1, 2, 10, 0)));
+
+    private final StatsClient statsClient = mock(StatsClient.class);
+    private final EventViewsCache eventViewsCache = new EventViewsCache(true, Duration.ofMinutes(1),
+            Duration.ofMinutes(1), 100, 10, false);
+    private final EventStatsService service = new EventStatsService(statsClient, eventViewsCache, VIEWS_TIMEOUT,
+            2, 10, false);
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+        eventViewsCache.shutdown();
+    }
+
+    @Test
+    void requestsStatsFromEarliestCreationDate() {
+        when(statsClient.requestStats(any(), any(), anyList(), eq(true)))
+                .thenReturn(List.of(new ViewStatsDto("ewm-main-service", "/events/1", 4L)));
+
+        assertThat(service.requestViews(EVENTS).join()).isEqualTo(Map.of(1L, 4L, 2L, 0L));
+        verify(statsClient).requestStats(eq(LocalDateTime.of(2024, 1, 1, 10, 0)), any(),
+                eq(List.of("/events/1", "/events/2")), eq(true));
+    }
+
+    @Test
+    void timeoutYieldsZeroViewsAndLateAnswerIsCached() throws InterruptedException {
+        CountDownLatch releaseStats = new CountDownLatch(1);
+        when(statsClient.requestStats(any(), any(), anyList(), eq(true))).thenAnswer(invocation -> {
+            releaseStats.await(5, TimeUnit.SECONDS);
+            return List.of(new ViewStatsDto("ewm-main-service", "/events/1", 4L));
+        });
+
+        // Нулевые просмотры - это отсутствие события в ответе, вызывающие подставляют 0
+        assertThat(service.requestViews(EVENTS).join()).isEmpty();
+
+        releaseStats.countDown();
+        verify(statsClient, timeout(5000)).requestStats(any(), any(), anyList(), eq(true));
+        assertThat(awaitViews()).isEqualTo(Map.of(1L, 4L, 2L, 0L));
+        verify(statsClient, times(1)).requestStats(any(), any(), anyList(), eq(true));
+    }
+
+    @Test
+    void statsFailureYieldsZeroViewsAndIsNotCached() {
+        when(statsClient.requestStats(any(), any(), anyList(), eq(true)))
+                .thenThrow(new IllegalStateException("stats down"))
+                .thenReturn(List.of(new ViewStatsDto("ewm-main-service", "/events/2", 3L)));
+
+        assertThat(service.requestViews(EVENTS).join()).isEmpty();
+        assertThat(service.requestViews(EVENTS).join()).isEqualTo(Map.of(1L, 0L, 2L, 3L));
+        verify(statsClient, times(2)).requestStats(any(), any(), anyList(), eq(true));
+    }
+
+    @Test
+    void recordedHitIsCountedWithoutNewStatsRequest() {
+        when(statsClient.requestStats(any(), any(), anyList(), eq(true))).thenReturn(List.of());
+        service.requestViews(EVENTS).join();
+
+        service.recordHit("/events/2", "10.0.0.1");
+
+        assertThat(service.requestViews(EVENTS).join()).isEqualTo(Map.of(1L, 0L, 2L, 1L));
+        verify(statsClient, times(1)).requestStats(any(), any(), anyList(), eq(true));
+        verify(statsClient).hit(any());
+    }
+
+    // Запоздавший ответ кладется в кэш уже после таймаута запроса, ждем его появления
+    private Map<Long, Long> awaitViews() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        Map<Long, Long> views = service.requestViews(EVENTS).join();
+        while (views.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            views = service.requestViews(EVENTS).join();
+        }
+        return views;
+    }
+}
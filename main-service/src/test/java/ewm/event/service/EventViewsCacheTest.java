@@ -0,0 +1,172 @@
+package ewm.event.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventViewsCacheTest {
+    private static final Duration TTL = Duration.ofSeconds(10);
+    private static final Duration STALE_WINDOW = Duration.ofSeconds(30);
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final EventViewsCache cache = new EventViewsCache(true, TTL, STALE_WINDOW, 100, 10, false, now::get);
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    void freshEntryIsServedWithoutLoading() {
+        assertThat(cache.getViews(List.of(1L), loader(5L))).containsEntry(1L, 5L);
+
+        advance(TTL.minusNanos(1));
+
+        assertThat(cache.getViews(List.of(1L), loader(7L))).containsEntry(1L, 5L);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void concurrentMissesShareOneRequest() throws Exception {
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        Function<List<Long>, Map<Long, Long>> slowLoader = eventIds -> {
+            loads.incrementAndGet();
+            loaderStarted.countDown();
+            await(releaseLoader);
+            return Map.of(1L, 5L, 2L, 3L);
+        };
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Map<Long, Long>>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> cache.getViews(List.of(1L, 2L), slowLoader)));
+            }
+            assertThat(loaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            // Остальные потоки либо ждут начатую загрузку, либо придут после нее и попадут в кэш
+            Thread.sleep(100);
+            releaseLoader.countDown();
+
+            for (Future<Map<Long, Long>> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(Map.of(1L, 5L, 2L, 3L));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void staleEntryIsServedWhileRefreshing() throws Exception {
+        cache.getViews(List.of(1L, 2L), loader(5L));
+        advance(TTL.plusSeconds(1));
+
+        CountDownLatch refreshStarted = new CountDownLatch(1);
+        CountDownLatch releaseRefresh = new CountDownLatch(1);
+        Map<Long, Long> stale = cache.getViews(List.of(1L), eventIds -> {
+            loads.incrementAndGet();
+            refreshStarted.countDown();
+            await(releaseRefresh);
+            return Map.of(1L, 7L);
+        });
+
+        assertThat(stale).containsEntry(1L, 5L);
+        assertThat(refreshStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        releaseRefresh.countDown();
+
+        // Поток обновления один: обновление, поставленное следом, начнется только после первого
+        CountDownLatch nextRefreshStarted = new CountDownLatch(1);
+        cache.getViews(List.of(2L), eventIds -> {
+            nextRefreshStarted.countDown();
+            return Map.of();
+        });
+        assertThat(nextRefreshStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(cache.getViews(List.of(1L), loader(9L))).containsEntry(1L, 7L);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void entryOlderThanStaleWindowIsLoadedSynchronously() {
+        cache.getViews(List.of(1L), loader(5L));
+        advance(TTL.plus(STALE_WINDOW));
+
+        assertThat(cache.getViews(List.of(1L), loader(7L))).containsEntry(1L, 7L);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void missingEventsAreCachedAsZero() {
+        assertThat(cache.getViews(List.of(1L, 2L), loader(5L))).isEqualTo(Map.of(1L, 5L, 2L, 0L));
+        assertThat(cache.getViews(List.of(2L), loader(5L))).isEqualTo(Map.of(2L, 0L));
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void failedLoadIsNotCached() {
+        assertThatThrownBy(() -> cache.getViews(List.of(1L), eventIds -> {
+            loads.incrementAndGet();
+            throw new IllegalStateException("stats down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(cache.getViews(List.of(1L), loader(5L))).containsEntry(1L, 5L);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void recordedViewersRaiseCachedViews() {
+        cache.getViews(List.of(1L), eventIds -> Map.of(1L, 0L));
+
+        cache.recordView(1L, "10.0.0.1");
+        cache.recordView(1L, "10.0.0.1");
+        cache.recordView(1L, "10.0.0.2");
+
+        assertThat(cache.getViews(List.of(1L), loader(0L))).containsEntry(1L, 2L);
+        assertThat(loads).hasValue(0);
+    }
+
+    @Test
+    void loadRacingWithViewIsNotCached() {
+        Map<Long, Long> loaded = cache.getViews(List.of(1L), eventIds -> {
+            cache.recordView(1L, "10.0.0.1");
+            return Map.of(1L, 5L);
+        });
+
+        assertThat(loaded).containsEntry(1L, 5L);
+        assertThat(cache.getViews(List.of(1L), loader(6L))).containsEntry(1L, 6L);
+        assertThat(loads).hasValue(1);
+    }
+
+    private Function<List<Long>, Map<Long, Long>> loader(long views) {
+        return eventIds -> {
+            loads.incrementAndGet();
+            return eventIds.contains(1L) ? Map.of(1L, views) : Map.of();
+        };
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package client;
+
+import lombok.extern.slf4j.Slf4j;
+import model.EndpointHitDto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Очередь hit'ов, которую фоновый поток разбирает пачками: отправка происходит,
+ * когда набралось flushSize записей или истек flushInterval с момента первой записи в пачке.
+ */
+@Slf4j
+public class AsyncHitDispatcher {
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(5);
+
+    private final BlockingQueue<EndpointHitDto> queue;
+    private final int flushSize;
+    private final long flushIntervalNanos;
+    private final HitOverflowPolicy overflowPolicy;
+    private final Consumer<List<EndpointHitDto>> sender;
+    private final Thread worker;
+    private final AtomicLong droppedHits = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    public AsyncHitDispatcher(int queueCapacity,
+                              int flushSize,
+                              Duration flushInterval,
+                              HitOverflowPolicy overflowPolicy,
+                              Consumer<List<EndpointHitDto>> sender) {
+        if (queueCapacity <= 0 || flushSize <= 0) {
+            throw new IllegalArgumentException("Размер очереди и пачки должны быть положительными");
+        }
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.flushSize = flushSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.overflowPolicy = overflowPolicy;
+        this.sender = sender;
+        this.worker = new Thread(this::drainLoop, "stats-hit-dispatcher");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public void submit(EndpointHitDto hit) {
+        if (!running) {
+            send(List.of(hit));
+            return;
+        }
+        if (queue.offer(hit)) {
+            return;
+        }
+
+        switch (overflowPolicy) {
+            case DROP_NEWEST -> onDropped(1);
+            case DROP_OLDEST -> {
+                if (queue.poll() != null) {
+                    onDropped(1);
+                }
+                if (!queue.offer(hit)) {
+                    onDropped(1);
+                }
+            }
+            case CALLER_RUNS -> send(List.of(hit));
+        }
+    }
+
+    public long getDroppedHits() {
+        return droppedHits.get();
+    }
+
+    public int getQueuedHits() {
+        return queue.size();
+    }
+
+    public void shutdown() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(SHUTDOWN_TIMEOUT.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            log.warn("Отправщик статистики не завершился за {}, в очереди осталось {} hit'ов",
+                    SHUTDOWN_TIMEOUT, queue.size());
+        }
+    }
+
+    private void drainLoop() {
+        List<EndpointHitDto> batch = new ArrayList<>(flushSize);
+        while (running) {
+            try {
+                fillBatch(batch);
+            } catch (InterruptedException e) {
+                break;
+            }
+            flush(batch);
+        }
+
+        Thread.interrupted();
+        queue.drainTo(batch);
+        flush(batch);
+    }
+
+    private void fillBatch(List<EndpointHitDto> batch) throws InterruptedException {
+        EndpointHitDto first = queue.take();
+        batch.add(first);
+
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < flushSize) {
+            queue.drainTo(batch, flushSize - batch.size());
+            if (batch.size() >= flushSize) {
+                return;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            EndpointHitDto next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<EndpointHitDto> batch) {
+        for (int from = 0; from < batch.size(); from += flushSize) {
+            send(List.copyOf(batch.subList(from, Math.min(batch.size(), from + flushSize))));
+        }
+        batch.clear();
+    }
+
+    private void send(List<EndpointHitDto> hits) {
+        try {
+            sender.accept(hits);
+        } catch (Exception e) {
+            log.warn("Не удалось отправить пачку статистики из {} hit'ов: {}", hits.size(), e.getMessage());
+        }
+    }
+
+    private void onDropped(int count) {
+        long total = droppedHits.addAndGet(count);
+        if (total == 1 || total % 1000 == 0) {
+            log.warn("Очередь статистики переполнена, отброшено hit'ов: {}", total);
+        }
+    }
+}
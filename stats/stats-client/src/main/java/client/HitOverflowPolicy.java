@@ -0,0 +1,7 @@
+package client;
+
+public enum HitOverflowPolicy {
+    DROP_NEWEST,
+    DROP_OLDEST,
+    CALLER_RUNS
+}
@@ -0,0 +1,10 @@
+package client;
+
+public enum HttpTransportType {
+    // HttpURLConnection: keep-alive только в пределах JVM-пула по умолчанию (http.maxConnections, 5 на хост)
+    SIMPLE,
+    // java.net.http.HttpClient: HTTP/2 (h2c) при поддержке сервером, иначе HTTP/1.1 с keep-alive
+    JDK,
+    // Apache HttpClient 5 с настраиваемым пулом соединений
+    APACHE
+}
@@ -0,0 +1,37 @@
+package client;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Бюджет повторов: каждая исходная отправка пополняет его на ratio, каждый повтор тратит единицу.
+ * Пока сервис статистики отвечает ошибками, повторов не больше ratio от потока запросов плюс запас maxTokens,
+ * и повторы не умножают нагрузку на него.
+ */
+public class RetryBudget {
+    private static final long UNIT = 1000;
+
+    private final long depositPerRequest;
+    private final long maxBalance;
+    private final AtomicLong balance;
+
+    public RetryBudget(double ratio, int maxTokens) {
+        this.depositPerRequest = Math.round(ratio * UNIT);
+        this.maxBalance = maxTokens * UNIT;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    public void onRequest() {
+        balance.accumulateAndGet(depositPerRequest, (current, deposit) -> Math.min(maxBalance, current + deposit));
+    }
+
+    public boolean tryRetry() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < UNIT) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - UNIT));
+        return true;
+    }
+}
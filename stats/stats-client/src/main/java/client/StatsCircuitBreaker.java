@@ -0,0 +1,153 @@
+package client;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Автомат защиты для вызовов сервиса статистики. В CLOSED считает долю ошибок среди последних windowSize
+ * вызовов и размыкается, когда она достигает failureRateThreshold (но не раньше minimumCalls вызовов).
+ * В OPEN вызовы не выполняются openDuration, затем в HALF_OPEN пропускается halfOpenCalls пробных вызовов:
+ * все успешные замыкают цепь, любая ошибка снова размыкает.
+ */
+@Slf4j
+public class StatsCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long openDurationNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoClock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Кольцо исходов последних вызовов: true - ошибка
+    private final boolean[] outcomes;
+    private int next;
+    private int recorded;
+    private int failures;
+
+    private volatile State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    public StatsCircuitBreaker(int windowSize, int minimumCalls, int failureRateThreshold, Duration openDuration,
+                               int halfOpenCalls) {
+        this(windowSize, minimumCalls, failureRateThreshold, openDuration, halfOpenCalls, System::nanoTime);
+    }
+
+    // nanoClock подменяется в тестах, чтобы проверять выход из OPEN без ожидания openDuration
+    StatsCircuitBreaker(int windowSize, int minimumCalls, int failureRateThreshold, Duration openDuration,
+                        int halfOpenCalls, LongSupplier nanoClock) {
+        if (windowSize <= 0 || minimumCalls <= 0 || minimumCalls > windowSize || halfOpenCalls <= 0
+                || failureRateThreshold <= 0 || failureRateThreshold > 100) {
+            throw new IllegalArgumentException("Некорректные параметры автомата защиты сервиса статистики");
+        }
+        this.outcomes = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+        this.nanoClock = nanoClock;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * @return true, если вызов можно выполнять; после него нужно сообщить исход через onSuccess/onFailure
+     */
+    public boolean tryAcquire() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        lock.lock();
+        try {
+            if (state == State.OPEN && nanoClock.getAsLong() - openedAt >= openDurationNanos) {
+                halfOpenPermits = halfOpenCalls;
+                halfOpenSuccesses = 0;
+                transition(State.HALF_OPEN);
+            }
+            if (state == State.HALF_OPEN && halfOpenPermits > 0) {
+                halfOpenPermits--;
+                return true;
+            }
+            return state == State.CLOSED;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onSuccess() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                if (++halfOpenSuccesses >= halfOpenCalls) {
+                    resetWindow();
+                    transition(State.CLOSED);
+                }
+            } else if (state == State.CLOSED) {
+                record(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onFailure() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                open();
+            } else if (state == State.CLOSED) {
+                record(true);
+                if (recorded >= minimumCalls && failures * 100 >= failureRateThreshold * recorded) {
+                    open();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(boolean failure) {
+        if (recorded == outcomes.length) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+    }
+
+    private void open() {
+        openedAt = nanoClock.getAsLong();
+        resetWindow();
+        transition(State.OPEN);
+    }
+
+    private void resetWindow() {
+        next = 0;
+        recorded = 0;
+        failures = 0;
+    }
+
+    private void transition(State newState) {
+        if (state != newState) {
+            log.warn("Автомат защиты сервиса статистики: {} -> {}", state, newState);
+            state = newState;
+        }
+    }
+}
@@ -1,63 +1,264 @@
 package client;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
 import model.EndpointHitDto;
+import model.StatsQueryDto;
 import model.ViewStatsDto;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
+/**
+ * Клиент сервиса статистики. Запросы ограничены connect/read-таймаутами и идут через автомат защиты:
+ * пока сервис недоступен, запросы статистики сразу завершаются {@link StatsServerUnavailableException},
+ * а hit'ы отбрасываются. Чем заменить недоступную статистику, решает вызывающий; запросы статистики
+ * не повторяются, чтобы не задерживать поток запроса. При асинхронной отправке пачки hit'ов повторяются в фоновом потоке
+ * с экспоненциальной задержкой и случайным разбросом в пределах бюджета повторов; синхронная отправка
+ * делает одну попытку, чтобы не задерживать поток запроса.
+ */
 @Component
+@Slf4j
 public class StatsClient {
+    private static final String OPERATION_HIT = "hit";
+    private static final String OPERATION_STATS = "stats";
+
     final RestClient restClient;
+    private final StatsHttpTransport transport;
+    private final AsyncHitDispatcher hitDispatcher;
+    private final boolean approximateUnique;
+    private final int postQueryThreshold;
+    private final StatsCircuitBreaker circuitBreaker;
+    private final StatsClientProperties.Retry retry;
+    private final RetryBudget retryBudget;
+    private final MeterRegistry meterRegistry;
 
     public StatsClient(RestClient.Builder restClientBuilder,
-                       @Value("${stats.server.url:http://localhost:9090}") String serverUrl) {
+                       @Value("${stats.server.url:http://localhost:9090}") String serverUrl,
+                       StatsClientProperties properties,
+                       MeterRegistry meterRegistry) {
+        this.transport = StatsHttpTransport.create(properties);
         this.restClient = restClientBuilder
                 .baseUrl(serverUrl)
+                .requestFactory(transport.requestFactory())
                 .build();
+
+        this.approximateUnique = properties.isApproximateUnique();
+        this.postQueryThreshold = properties.getPostQueryThreshold();
+        this.meterRegistry = meterRegistry;
+
+        StatsClientProperties.CircuitBreaker breaker = properties.getCircuitBreaker();
+        this.circuitBreaker = breaker.isEnabled()
+                ? new StatsCircuitBreaker(breaker.getWindowSize(), breaker.getMinimumCalls(),
+                        breaker.getFailureRateThreshold(), breaker.getOpenDuration(), breaker.getHalfOpenCalls())
+                : null;
+        if (circuitBreaker != null) {
+            for (StatsCircuitBreaker.State state : StatsCircuitBreaker.State.values()) {
+                Gauge.builder("stats.client.circuit.state", circuitBreaker,
+                                cb -> cb.getState() == state ? 1 : 0)
+                        .tag("state", state.name().toLowerCase())
+                        .register(meterRegistry);
+            }
+        }
+
+        this.retry = properties.getRetry();
+        this.retryBudget = new RetryBudget(retry.getBudgetRatio(), retry.getBudgetMaxTokens());
+
+        StatsClientProperties.Async async = properties.getAsync();
+        this.hitDispatcher = async.isEnabled()
+                ? new AsyncHitDispatcher(async.getQueueCapacity(), async.getFlushSize(),
+                        async.getFlushInterval(), async.getOverflowPolicy(), this::sendHits)
+                : null;
+        if (hitDispatcher != null) {
+            Gauge.builder("stats.client.hits.queued", hitDispatcher, AsyncHitDispatcher::getQueuedHits)
+                    .register(meterRegistry);
+            Gauge.builder("stats.client.hits.overflowed", hitDispatcher, AsyncHitDispatcher::getDroppedHits)
+                    .register(meterRegistry);
+        }
     }
 
     public void hit(EndpointHitDto endpointHitDto) {
+        if (hitDispatcher != null) {
+            hitDispatcher.submit(endpointHitDto);
+            return;
+        }
+        sendHit(endpointHitDto);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (hitDispatcher != null) {
+            hitDispatcher.shutdown();
+        }
+        transport.close();
+    }
+
+    // Пачки приходят только из фонового потока отправщика, поэтому их можно повторять
+    private void sendHits(List<EndpointHitDto> endpointHitDtos) {
+        send(endpointHitDtos.size(), true, () -> restClient.post()
+                .uri("/hit/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(endpointHitDtos)
+                .retrieve()
+                .toBodilessEntity());
+    }
+
+    private void sendHit(EndpointHitDto endpointHitDto) {
+        send(1, false, () -> restClient.post()
+                .uri("/hit")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(endpointHitDto)
+                .retrieve()
+                .toBodilessEntity());
+    }
+
+    private void send(int hits, boolean retryable, Supplier<?> request) {
+        // Повторы допустимы только в фоновом потоке: в потоке запроса они удлиняют ответ клиенту
+        int maxAttempts = retryable ? retry.getMaxAttempts() : 1;
+        if (retryable) {
+            retryBudget.onRequest();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                call(OPERATION_HIT, request);
+                return;
+            } catch (StatsServerUnavailableException e) {
+                dropHits(hits, "circuit_open");
+                return;
+            } catch (HttpClientErrorException e) {
+                // Сервер отверг сами данные, повтор ничего не изменит
+                log.warn("Сервис статистики отклонил {} hit'ов: {}", hits, e.getMessage());
+                dropHits(hits, "rejected");
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts || !retryBudget.tryRetry()) {
+                    log.warn("Не удалось отправить {} hit'ов за {} попыток: {}", hits, attempt, e.getMessage());
+                    dropHits(hits, retryable ? "retries_exhausted" : "failed");
+                    return;
+                }
+                meterRegistry.counter("stats.client.retries").increment();
+                if (!sleep(backoff(attempt))) {
+                    dropHits(hits, "interrupted");
+                    return;
+                }
+            }
+        }
+    }
+
+    // Экспоненциальная задержка с полным случайным разбросом: повторы разных потоков не приходят пачкой
+    private long backoff(int attempt) {
+        long cap = Math.min(retry.getMaxBackoff().toMillis(),
+                retry.getInitialBackoff().toMillis() << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private static boolean sleep(long millis) {
         try {
-            restClient.post()
-                    .uri("/hit")
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(endpointHitDto)
-                    .retrieve()
-                    .toBodilessEntity();
-        } catch (Exception e) {
-            System.err.println("Ошибка при отправке статистики: " + e.getMessage());
+            TimeUnit.MILLISECONDS.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
         }
     }
 
-    public List<ViewStatsDto> getStats(LocalDateTime start, LocalDateTime end,
-                                       List<String> uris, Boolean unique) {
+    private void dropHits(int hits, String reason) {
+        meterRegistry.counter("stats.client.hits.dropped", "reason", reason).increment(hits);
+    }
+
+    public List<ViewStatsDto> requestStats(LocalDateTime start, LocalDateTime end,
+                                           List<String> uris, Boolean unique) {
+        if (uris != null && uris.size() > postQueryThreshold) {
+            return queryStats(new StatsQueryDto(start, end, uris, null, Boolean.TRUE.equals(unique),
+                    approximateUnique && Boolean.TRUE.equals(unique)));
+        }
+
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
-        try {
-            UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromPath("/stats")
-                    .queryParam("start", start.format(formatter))
-                    .queryParam("end", end.format(formatter))
-                    .queryParam("unique", unique);
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromPath("/stats")
+                .queryParam("start", start.format(formatter))
+                .queryParam("end", end.format(formatter))
+                .queryParam("unique", unique);
 
-            if (uris != null && !uris.isEmpty()) {
-                uris.forEach(uri -> uriBuilder.queryParam("uris", uri));
-            }
+        if (approximateUnique && Boolean.TRUE.equals(unique)) {
+            uriBuilder.queryParam("approximate", true);
+        }
+
+        if (uris != null && !uris.isEmpty()) {
+            uris.forEach(uri -> uriBuilder.queryParam("uris", uri));
+        }
+
+        return call(OPERATION_STATS, () -> restClient.get()
+                .uri(uriBuilder.build().toUriString())
+                .retrieve()
+                .body(new ParameterizedTypeReference<List<ViewStatsDto>>() {}));
+    }
 
-            return restClient.get()
-                    .uri(uriBuilder.build().toUriString())
-                    .retrieve()
-                    .body(new ParameterizedTypeReference<>() {});
-        } catch (Exception e) {
-            System.err.println("Ошибка при получении статистики: " + e.getMessage());
-            return List.of();
+    /**
+     * Статистика по всем uri, начинающимся с uriPrefix; ошибки сервиса статистики не подменяются.
+     */
+    public List<ViewStatsDto> requestStatsByPrefix(LocalDateTime start, LocalDateTime end,
+                                                   String uriPrefix, Boolean unique) {
+        return queryStats(new StatsQueryDto(start, end, null, uriPrefix, Boolean.TRUE.equals(unique),
+                approximateUnique && Boolean.TRUE.equals(unique)));
+    }
+
+    private List<ViewStatsDto> queryStats(StatsQueryDto query) {
+        return call(OPERATION_STATS, () -> restClient.post()
+                .uri("/stats/query")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(query)
+                .retrieve()
+                .body(new ParameterizedTypeReference<List<ViewStatsDto>>() {}));
+    }
+
+    private <T> T call(String operation, Supplier<T> request) {
+        if (circuitBreaker != null && !circuitBreaker.tryAcquire()) {
+            countRequest(operation, "rejected");
+            throw new StatsServerUnavailableException("Сервис статистики недоступен, вызов пропущен");
+        }
+        try {
+            T result = request.get();
+            onOutcome(true);
+            countRequest(operation, "success");
+            return result;
+        } catch (HttpClientErrorException e) {
+            // 4xx - ошибка запроса, а не сервера: автомат защиты считает вызов успешным
+            onOutcome(true);
+            countRequest(operation, "client_error");
+            throw e;
+        } catch (RuntimeException e) {
+            onOutcome(false);
+            countRequest(operation, "error");
+            throw e;
         }
     }
-}
\ No newline at end of file
+
+    private void onOutcome(boolean success) {
+        if (circuitBreaker == null) {
+            return;
+        }
+        if (success) {
+            circuitBreaker.onSuccess();
+        } else {
+            circuitBreaker.onFailure();
+        }
+    }
+
+    private void countRequest(String operation, String outcome) {
+        meterRegistry.counter("stats.client.requests", "operation", operation, "outcome", outcome).increment();
+    }
+}
@@ -0,0 +1,70 @@
+package client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "stats.client")
+@Getter
+@Setter
+public class StatsClientProperties {
+
+    private Async async = new Async();
+    private boolean approximateUnique = false;
+    // Больше стольких uri запрос статистики уходит телом POST /stats/query, а не строкой GET /stats
+    private int postQueryThreshold = 50;
+    private Duration connectTimeout = Duration.ofSeconds(1);
+    private Duration readTimeout = Duration.ofSeconds(2);
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private Retry retry = new Retry();
+    private Transport transport = new Transport();
+
+    @Getter
+    @Setter
+    public static class Async {
+        private boolean enabled = false;
+        private int queueCapacity = 10_000;
+        private int flushSize = 100;
+        private Duration flushInterval = Duration.ofSeconds(1);
+        private HitOverflowPolicy overflowPolicy = HitOverflowPolicy.DROP_OLDEST;
+    }
+
+    @Getter
+    @Setter
+    public static class CircuitBreaker {
+        private boolean enabled = true;
+        private int windowSize = 20;
+        private int minimumCalls = 10;
+        private int failureRateThreshold = 50;
+        private Duration openDuration = Duration.ofSeconds(10);
+        private int halfOpenCalls = 3;
+    }
+
+    @Getter
+    @Setter
+    public static class Retry {
+        private int maxAttempts = 3;
+        private Duration initialBackoff = Duration.ofMillis(50);
+        private Duration maxBackoff = Duration.ofMillis(500);
+        private double budgetRatio = 0.1;
+        private int budgetMaxTokens = 10;
+    }
+
+    @Getter
+    @Setter
+    public static class Transport {
+        private HttpTransportType type = HttpTransportType.APACHE;
+        // Для APACHE; сервис статистики один, поэтому весь пул может приходиться на один маршрут
+        private int maxConnections = 50;
+        private int maxConnectionsPerRoute = 50;
+        private Duration idleTimeout = Duration.ofSeconds(30);
+        private Duration timeToLive = Duration.ofMinutes(5);
+        private Duration validateAfterInactivity = Duration.ofSeconds(2);
+        // Для JDK: HTTP/2 поверх открытого соединения (h2c), если сервер его поддерживает
+        private boolean http2 = true;
+    }
+}
@@ -0,0 +1,109 @@
+package client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.web.client.ClientHttpRequestFactories;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * HTTP-транспорт клиента статистики: фабрика запросов для RestClient и ресурсы, которые нужно
+ * закрыть при остановке (пул соединений, поток вытеснения простаивающих соединений).
+ */
+@Slf4j
+final class StatsHttpTransport implements AutoCloseable {
+    private final ClientHttpRequestFactory requestFactory;
+    private final AutoCloseable resource;
+
+    private StatsHttpTransport(ClientHttpRequestFactory requestFactory, AutoCloseable resource) {
+        this.requestFactory = requestFactory;
+        this.resource = resource;
+    }
+
+    static StatsHttpTransport create(StatsClientProperties properties) {
+        StatsClientProperties.Transport transport = properties.getTransport();
+        return switch (transport.getType()) {
+            case SIMPLE -> simple(properties.getConnectTimeout(), properties.getReadTimeout());
+            case JDK -> jdk(properties.getConnectTimeout(), properties.getReadTimeout(), transport);
+            case APACHE -> apache(properties.getConnectTimeout(), properties.getReadTimeout(), transport);
+        };
+    }
+
+    ClientHttpRequestFactory requestFactory() {
+        return requestFactory;
+    }
+
+    @Override
+    public void close() {
+        if (resource == null) {
+            return;
+        }
+        try {
+            resource.close();
+        } catch (Exception e) {
+            log.warn("Ошибка при закрытии HTTP-транспорта клиента статистики: {}", e.getMessage());
+        }
+    }
+
+    private static StatsHttpTransport simple(Duration connectTimeout, Duration readTimeout) {
+        // Класс фабрики указан явно: без него Spring Boot выбрал бы Apache HttpClient, раз он есть в classpath
+        return new StatsHttpTransport(ClientHttpRequestFactories.get(SimpleClientHttpRequestFactory.class,
+                ClientHttpRequestFactorySettings.DEFAULTS
+                        .withConnectTimeout(connectTimeout)
+                        .withReadTimeout(readTimeout)), null);
+    }
+
+    // Размер пула и время жизни соединений JDK-клиента задаются только системными свойствами
+    // jdk.httpclient.connectionPoolSize и jdk.httpclient.keepalive.timeout, общими для всей JVM
+    private static StatsHttpTransport jdk(Duration connectTimeout, Duration readTimeout,
+                                          StatsClientProperties.Transport transport) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(transport.isHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+        return new StatsHttpTransport(requestFactory, httpClient);
+    }
+
+    private static StatsHttpTransport apache(Duration connectTimeout, Duration readTimeout,
+                                             StatsClientProperties.Transport transport) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(transport.getMaxConnections())
+                .setMaxConnPerRoute(transport.getMaxConnectionsPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setTimeToLive(TimeValue.of(transport.getTimeToLive()))
+                        .setValidateAfterInactivity(TimeValue.of(transport.getValidateAfterInactivity()))
+                        .build())
+                .build();
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        // Ожидание свободного соединения из пула тоже ограничено
+                        .setConnectionRequestTimeout(Timeout.of(connectTimeout))
+                        .build())
+                // Сервер может не присылать Keep-Alive: без явного срока соединение считалось бы вечным
+                .setKeepAliveStrategy((response, context) -> TimeValue.of(transport.getIdleTimeout()))
+                .evictIdleConnections(TimeValue.of(transport.getIdleTimeout()))
+                .evictExpiredConnections()
+                // Повторы делает StatsClient в пределах бюджета, встроенные повторы их бы умножили
+                .disableAutomaticRetries()
+                .build();
+        return new StatsHttpTransport(new HttpComponentsClientHttpRequestFactory(httpClient), httpClient);
+    }
+}
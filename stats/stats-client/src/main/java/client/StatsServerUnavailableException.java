@@ -0,0 +1,10 @@
+package client;
+
+/**
+ * Запрос к сервису статистики не выполнялся: цепь разомкнута после серии ошибок.
+ */
+public class StatsServerUnavailableException extends RuntimeException {
+    public StatsServerUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,134 @@
+package client;
+
+import model.EndpointHitDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Переполнение очереди: отправитель держит первую пачку, пока тест заполняет очередь емкостью 2.
+ */
+class AsyncHitDispatcherTest {
+    private static final int QUEUE_CAPACITY = 2;
+
+    private final CountDownLatch firstSendStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseFirstSend = new CountDownLatch(1);
+    private final List<String> sentUris = new CopyOnWriteArrayList<>();
+    private final List<String> senderThreads = new CopyOnWriteArrayList<>();
+
+    private AsyncHitDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        releaseFirstSend.countDown();
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    void dropNewestDiscardsSubmittedHit() throws InterruptedException {
+        dispatcher = fullDispatcher(HitOverflowPolicy.DROP_NEWEST);
+
+        dispatcher.submit(hit("/4"));
+
+        assertThat(dispatcher.getDroppedHits()).isEqualTo(1);
+        assertThat(dispatcher.getQueuedHits()).isEqualTo(QUEUE_CAPACITY);
+        drain();
+        assertThat(sentUris).containsExactly("/1", "/2", "/3");
+    }
+
+    @Test
+    void dropOldestDiscardsHeadOfQueue() throws InterruptedException {
+        dispatcher = fullDispatcher(HitOverflowPolicy.DROP_OLDEST);
+
+        dispatcher.submit(hit("/4"));
+
+        assertThat(dispatcher.getDroppedHits()).isEqualTo(1);
+        assertThat(dispatcher.getQueuedHits()).isEqualTo(QUEUE_CAPACITY);
+        drain();
+        assertThat(sentUris).containsExactly("/1", "/3", "/4");
+    }
+
+    @Test
+    void callerRunsSendsOnSubmittingThread() throws InterruptedException {
+        dispatcher = fullDispatcher(HitOverflowPolicy.CALLER_RUNS);
+
+        dispatcher.submit(hit("/4"));
+
+        assertThat(dispatcher.getDroppedHits()).isZero();
+        assertThat(sentUris).containsExactly("/4");
+        assertThat(senderThreads).containsExactly(Thread.currentThread().getName());
+        drain();
+        assertThat(sentUris).containsExactly("/4", "/1", "/2", "/3");
+    }
+
+    @Test
+    void batchesUpToFlushSize() {
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        dispatcher = new AsyncHitDispatcher(100, 3, Duration.ofHours(1), HitOverflowPolicy.DROP_NEWEST,
+                hits -> batchSizes.add(hits.size()));
+
+        for (int i = 0; i < 7; i++) {
+            dispatcher.submit(hit("/" + i));
+        }
+        dispatcher.shutdown();
+
+        assertThat(batchSizes).allMatch(size -> size <= 3);
+        assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(7);
+    }
+
+    @Test
+    void sendsSynchronouslyAfterShutdown() {
+        dispatcher = new AsyncHitDispatcher(10, 10, Duration.ofMillis(10), HitOverflowPolicy.DROP_NEWEST,
+                hits -> hits.forEach(hit -> sentUris.add(hit.getUri())));
+        dispatcher.shutdown();
+
+        dispatcher.submit(hit("/late"));
+
+        assertThat(sentUris).containsExactly("/late");
+    }
+
+    private AsyncHitDispatcher fullDispatcher(HitOverflowPolicy policy) throws InterruptedException {
+        AsyncHitDispatcher fullDispatcher = new AsyncHitDispatcher(QUEUE_CAPACITY, 1, Duration.ZERO, policy,
+                this::send);
+        fullDispatcher.submit(hit("/1"));
+        assertThat(firstSendStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        fullDispatcher.submit(hit("/2"));
+        fullDispatcher.submit(hit("/3"));
+        assertThat(fullDispatcher.getQueuedHits()).isEqualTo(QUEUE_CAPACITY);
+        assertThat(fullDispatcher.getDroppedHits()).isZero();
+        return fullDispatcher;
+    }
+
+    private void send(List<EndpointHitDto> hits) {
+        if (hits.get(0).getUri().equals("/1")) {
+            firstSendStarted.countDown();
+            try {
+                releaseFirstSend.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        senderThreads.add(Thread.currentThread().getName());
+        hits.forEach(hit -> sentUris.add(hit.getUri()));
+    }
+
+    private void drain() {
+        releaseFirstSend.countDown();
+        dispatcher.shutdown();
+    }
+
+    private static EndpointHitDto hit(String uri) {
+        return new EndpointHitDto("ewm-main-service", uri, "127.0.0.1", LocalDateTime.now());
+    }
+}
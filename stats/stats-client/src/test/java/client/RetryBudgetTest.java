@@ -0,0 +1,64 @@
+package client;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetryBudgetTest {
+    @Test
+    void startsWithFullReserveAndRunsOut() {
+        RetryBudget budget = new RetryBudget(0.1, 3);
+
+        assertThat(budget.tryRetry()).isTrue();
+        assertThat(budget.tryRetry()).isTrue();
+        assertThat(budget.tryRetry()).isTrue();
+
+        assertThat(budget.tryRetry()).isFalse();
+    }
+
+    @Test
+    void requestsRefillByRatio() {
+        RetryBudget budget = new RetryBudget(0.1, 3);
+        drain(budget);
+
+        // 9 запросов по 0.1 - еще не целый повтор
+        for (int i = 0; i < 9; i++) {
+            budget.onRequest();
+        }
+        assertThat(budget.tryRetry()).isFalse();
+
+        budget.onRequest();
+        assertThat(budget.tryRetry()).isTrue();
+        assertThat(budget.tryRetry()).isFalse();
+    }
+
+    @Test
+    void refillIsCappedByMaxTokens() {
+        RetryBudget budget = new RetryBudget(0.5, 2);
+        drain(budget);
+
+        for (int i = 0; i < 100; i++) {
+            budget.onRequest();
+        }
+
+        assertThat(drain(budget)).isEqualTo(2);
+    }
+
+    @Test
+    void zeroRatioAllowsOnlyReserve() {
+        RetryBudget budget = new RetryBudget(0, 1);
+        assertThat(budget.tryRetry()).isTrue();
+
+        budget.onRequest();
+
+        assertThat(budget.tryRetry()).isFalse();
+    }
+
+    private static int drain(RetryBudget budget) {
+        int retries = 0;
+        while (budget.tryRetry()) {
+            retries++;
+        }
+        return retries;
+    }
+}
@@ -0,0 +1,120 @@
+package client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Окно из 4 вызовов, размыкание от 50% ошибок после 4 вызовов, 2 пробных вызова в HALF_OPEN.
+ */
+class StatsCircuitBreakerTest {
+    private static final Duration OPEN_DURATION = Duration.ofSeconds(10);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final StatsCircuitBreaker breaker = new StatsCircuitBreaker(4, 4, 50, OPEN_DURATION, 2, nanos::get);
+
+    @Test
+    void staysClosedUntilMinimumCalls() {
+        call(true);
+        call(true);
+        call(true);
+
+        assertThat(breaker.getState()).isEqualTo(StatsCircuitBreaker.State.CLOSED);
+
+        call(true);
+
+        assertThat(breaker.getState()).isEqualTo(StatsCircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void oldOutcomesLeaveRingWindow() {
+        // Ошибки в начале не размыкают: вызовов меньше minimumCalls, а успехи долю не проверяют
+        call(true);
+        call(true);
+        call(false);
+        call(false);
+        assertThat(breaker.getState()).isEqualTo(StatsCircuitBreaker.State.CLOSED);
+
+        // Два успеха вытесняют обе ошибки из окна
+        call(false);
+        call(false);
+        call(true);
+        assertThat(breaker.getState()).isEqualTo(StatsCircuitBreaker.State.CLOSED);
+
+        // В окне 2 ошибки из 4
+        call(true);
+        assertThat(breaker.getState()).isEqualTo(StatsCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void halfOpenAfterOpenDurationAndClosesAfterSuccessfulProbes() {
+        trip();
+
+        nanos.addAndGet(OPEN_DURATION.toNanos() - 1);
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.getState()).isEqualTo(StatsCircuitBreaker.State.OPEN);
+
+        nanos.incrementAndGet();
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(StatsCircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isTrue();
+        // Пробных вызовов не больше halfOpenCalls
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        breaker.onSuccess();
+        assertThat(breaker.getState()).isEqualTo(StatsCircuitBreaker.State.HALF_OPEN);
+        breaker.onSuccess();
+
+        assertThat(breaker.getState()).isEqualTo(StatsCircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+        // Окно начинается заново: одна ошибка после замыкания не размыкает
+        call(true);
+        assertThat(breaker.getState()).isEqualTo(StatsCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void failedProbeReopensForFullOpenDuration() {
+        trip();
+        nanos.addAndGet(OPEN_DURATION.toNanos());
+        assertThat(breaker.tryAcquire()).isTrue();
+
+        breaker.onFailure();
+
+        assertThat(breaker.getState()).isEqualTo(StatsCircuitBreaker.State.OPEN);
+        nanos.addAndGet(OPEN_DURATION.toNanos() - 1);
+        assertThat(breaker.tryAcquire()).isFalse();
+        nanos.incrementAndGet();
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void rejectsInvalidParameters() {
+        assertThatThrownBy(() -> new StatsCircuitBreaker(4, 5, 50, OPEN_DURATION, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new StatsCircuitBreaker(4, 4, 101, OPEN_DURATION, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new StatsCircuitBreaker(4, 4, 50, OPEN_DURATION, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void trip() {
+        for (int i = 0; i < 4; i++) {
+            call(true);
+        }
+        assertThat(breaker.getState()).isEqualTo(StatsCircuitBreaker.State.OPEN);
+    }
+
+    private void call(boolean failure) {
+        assertThat(breaker.tryAcquire()).isTrue();
+        if (failure) {
+            breaker.onFailure();
+        } else {
+            breaker.onSuccess();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Запрос статистики в теле POST /stats/query: список uri не ограничен длиной строки запроса.
+ * uris и uriPrefix можно задать вместе - тогда учитываются uri, подходящие под оба условия.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StatsQueryDto {
+
+    @NotNull(message = "Start cannot be null")
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime start;
+
+    @NotNull(message = "End cannot be null")
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime end;
+
+    private List<String> uris;
+
+    private String uriPrefix;
+
+    private boolean unique;
+
+    private boolean approximate;
+}
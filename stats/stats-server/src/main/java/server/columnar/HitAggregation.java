@@ -0,0 +1,80 @@
+package server.columnar;
+
+import model.ViewStatsDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Подсчет hit'ов по (app, uri) на кодах строк. Для уникальных посетителей запоминаются пары
+ * (app, uri) x ip, поэтому результат точный.
+ */
+public final class HitAggregation {
+    private final boolean unique;
+    // Маска разрешенных кодов uri; null - без фильтра
+    private final boolean[] uriFilter;
+
+    private final LongLongHashMap pairIndexes = new LongLongHashMap(64);
+    private final LongLongHashMap seen;
+    private long[] pairKeys = new long[64];
+    private long[] counts = new long[64];
+    private int pairCount;
+
+    public HitAggregation(boolean unique, boolean[] uriFilter) {
+        this.unique = unique;
+        this.uriFilter = uriFilter;
+        this.seen = unique ? new LongLongHashMap(1024) : null;
+    }
+
+    void addAll(int[] appIds, int[] uriIds, int[] ipIds, int limit) {
+        for (int i = 0; i < limit; i++) {
+            add(appIds[i], uriIds[i], ipIds[i]);
+        }
+    }
+
+    void addRange(long[] timestamps, int[] appIds, int[] uriIds, int[] ipIds, int limit, long from, long to) {
+        for (int i = 0; i < limit; i++) {
+            long timestamp = timestamps[i];
+            if (timestamp >= from && timestamp <= to) {
+                add(appIds[i], uriIds[i], ipIds[i]);
+            }
+        }
+    }
+
+    public List<ViewStatsDto> toStats(StringInterner apps, StringInterner uris) {
+        List<ViewStatsDto> result = new ArrayList<>(pairCount);
+        for (int pair = 0; pair < pairCount; pair++) {
+            result.add(new ViewStatsDto(apps.valueOf((int) (pairKeys[pair] >>> 32)), uris.valueOf((int) pairKeys[pair]),
+                    counts[pair]));
+        }
+        result.sort(Comparator.comparing(ViewStatsDto::getHits).reversed());
+        return result;
+    }
+
+    private void add(int appId, int uriId, int ipId) {
+        if (uriFilter != null && (uriId >= uriFilter.length || !uriFilter[uriId])) {
+            return;
+        }
+        long pairKey = ((long) appId << 32) | uriId;
+        int pair = (int) pairIndexes.get(pairKey, -1);
+        if (pair < 0) {
+            pair = newPair(pairKey);
+        }
+        if (!unique || seen.putIfAbsent(((long) pair << 32) | ipId, 0)) {
+            counts[pair]++;
+        }
+    }
+
+    private int newPair(long pairKey) {
+        int pair = pairCount++;
+        if (pair == pairKeys.length) {
+            pairKeys = Arrays.copyOf(pairKeys, pair * 2);
+            counts = Arrays.copyOf(counts, pair * 2);
+        }
+        pairKeys[pair] = pairKey;
+        pairIndexes.putIfAbsent(pairKey, pair);
+        return pair;
+    }
+}
@@ -0,0 +1,67 @@
+package server.columnar;
+
+import java.util.Arrays;
+
+/**
+ * Hit'ы одного интервала времени [start, end) по колонкам: время в секундах и коды app, uri, ip.
+ * Дописывает один писатель; читатели видят записи до опубликованного size и не блокируются.
+ */
+public final class HitChunk {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final long start;
+    private final long end;
+    // Запись: сначала колонки, затем size; чтение: сначала size, затем колонки
+    private volatile Columns columns;
+    private volatile int size;
+
+    public HitChunk(long start, long end) {
+        this.start = start;
+        this.end = end;
+        this.columns = new Columns(new long[INITIAL_CAPACITY], new int[INITIAL_CAPACITY], new int[INITIAL_CAPACITY],
+                new int[INITIAL_CAPACITY]);
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void append(long epochSecond, int appId, int uriId, int ipId) {
+        int index = size;
+        Columns current = columns;
+        if (index == current.timestamps().length) {
+            int capacity = index * 2;
+            current = new Columns(Arrays.copyOf(current.timestamps(), capacity),
+                    Arrays.copyOf(current.appIds(), capacity), Arrays.copyOf(current.uriIds(), capacity),
+                    Arrays.copyOf(current.ipIds(), capacity));
+        }
+        current.timestamps()[index] = epochSecond;
+        current.appIds()[index] = appId;
+        current.uriIds()[index] = uriId;
+        current.ipIds()[index] = ipId;
+        columns = current;
+        size = index + 1;
+    }
+
+    /**
+     * Добавляет в агрегат hit'ы с временем из [from, to]. Если интервал чанка целиком внутри запроса,
+     * колонка времени не читается.
+     */
+    public void aggregate(long from, long to, HitAggregation aggregation) {
+        int limit = size;
+        Columns snapshot = columns;
+        if (from <= start && to >= end - 1) {
+            aggregation.addAll(snapshot.appIds(), snapshot.uriIds(), snapshot.ipIds(), limit);
+        } else {
+            aggregation.addRange(snapshot.timestamps(), snapshot.appIds(), snapshot.uriIds(), snapshot.ipIds(), limit,
+                    from, to);
+        }
+    }
+
+    private record Columns(long[] timestamps, int[] appIds, int[] uriIds, int[] ipIds) {
+    }
+}
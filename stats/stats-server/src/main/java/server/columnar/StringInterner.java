@@ -0,0 +1,58 @@
+package server.columnar;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Отображение строк в плотные int-коды. Коды не освобождаются, поэтому объем растет с числом
+ * различных строк за время жизни процесса.
+ */
+public final class StringInterner {
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    // Запись: сначала строка в массив, затем size; чтение: сначала size, затем массив
+    private volatile String[] values = new String[1024];
+    private volatile int size;
+    private final ReentrantLock addLock = new ReentrantLock();
+
+    public int intern(String value) {
+        Integer id = ids.get(value);
+        return id != null ? id : add(value);
+    }
+
+    /**
+     * @return код строки или -1, если строка не встречалась
+     */
+    public int find(String value) {
+        return ids.getOrDefault(value, -1);
+    }
+
+    public String valueOf(int id) {
+        return id < size ? values[id] : null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int add(String value) {
+        addLock.lock();
+        try {
+            Integer existing = ids.get(value);
+            if (existing != null) {
+                return existing;
+            }
+            int id = size;
+            if (id == values.length) {
+                values = Arrays.copyOf(values, id * 2);
+            }
+            values[id] = value;
+            size = id + 1;
+            ids.put(value, id);
+            return id;
+        } finally {
+            addLock.unlock();
+        }
+    }
+}
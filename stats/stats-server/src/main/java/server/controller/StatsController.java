@@ -1,27 +1,50 @@
 package server.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import model.EndpointHitDto;
+import model.StatsQueryDto;
 import model.ViewStatsDto;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
 import server.service.StatsService;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequiredArgsConstructor
 @Slf4j
 @Validated
 public class StatsController {
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
 
     private final StatsService statsService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Value("${stats.ingest.max-batch-size:10000}")
+    private int maxBatchSize;
+
+    @Value("${stats.query.max-uris:10000}")
+    private int maxQueryUris;
 
     @PostMapping("/hit")
     @ResponseStatus(HttpStatus.CREATED)
@@ -30,18 +53,82 @@ public class StatsController {
         statsService.saveHit(endpointHitDto);
     }
 
+    @PostMapping(value = "/hit/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public void saveHits(@RequestBody List<@Valid EndpointHitDto> endpointHitDtos) {
+        log.info("Получена пачка hit'ов: {}", endpointHitDtos.size());
+        checkBatchSize(endpointHitDtos.size());
+        statsService.saveHits(endpointHitDtos);
+    }
+
+    @PostMapping(value = "/hit/batch", consumes = APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public void saveHitsNdjson(InputStream body) throws IOException {
+        List<EndpointHitDto> endpointHitDtos = readNdjson(body);
+        log.info("Получена NDJSON-пачка hit'ов: {}", endpointHitDtos.size());
+        statsService.saveHits(endpointHitDtos);
+    }
+
     @GetMapping("/stats")
     public List<ViewStatsDto> getStats(
             @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime start,
             @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime end,
             @RequestParam(required = false) List<String> uris,
-            @RequestParam(defaultValue = "false") Boolean unique) {
+            @RequestParam(defaultValue = "false") Boolean unique,
+            @RequestParam(defaultValue = "false") Boolean approximate) {
 
         if (start.isAfter(end)) {
             throw new IllegalArgumentException("Дата начала должна быть раньше даты окончания");
         }
 
-        log.info("Получение статистики от {} до {}, uris: {}, unique: {}", start, end, uris, unique);
-        return statsService.getStats(start, end, uris, unique);
+        log.info("Получение статистики от {} до {}, uris: {}, unique: {}, approximate: {}",
+                start, end, uris, unique, approximate);
+        return statsService.getStats(start, end, uris, unique, approximate);
+    }
+
+    @PostMapping(value = "/stats/query", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public List<ViewStatsDto> queryStats(@Valid @RequestBody StatsQueryDto query) {
+        if (query.getStart().isAfter(query.getEnd())) {
+            throw new IllegalArgumentException("Дата начала должна быть раньше даты окончания");
+        }
+        if (query.getUris() != null && query.getUris().size() > maxQueryUris) {
+            throw new IllegalArgumentException("Число uri в запросе превышает " + maxQueryUris);
+        }
+
+        log.info("Получение статистики (POST) от {} до {}, uri: {}, uriPrefix: {}, unique: {}, approximate: {}",
+                query.getStart(), query.getEnd(), query.getUris() == null ? "все" : query.getUris().size(),
+                query.getUriPrefix(), query.isUnique(), query.isApproximate());
+        // Пустой список, как и в GET /stats, означает "без фильтра"
+        List<String> uris = query.getUris() == null || query.getUris().isEmpty() ? null : query.getUris();
+        return statsService.getStats(query.getStart(), query.getEnd(), uris, query.getUriPrefix(),
+                query.isUnique(), query.isApproximate());
+    }
+
+    private List<EndpointHitDto> readNdjson(InputStream body) throws IOException {
+        List<EndpointHitDto> endpointHitDtos = new ArrayList<>();
+        Set<ConstraintViolation<EndpointHitDto>> violations = new HashSet<>();
+
+        try (MappingIterator<EndpointHitDto> iterator = objectMapper.readerFor(EndpointHitDto.class)
+                .readValues(body)) {
+            while (iterator.hasNextValue()) {
+                EndpointHitDto endpointHitDto = iterator.nextValue();
+                violations.addAll(validator.validate(endpointHitDto));
+                endpointHitDtos.add(endpointHitDto);
+                checkBatchSize(endpointHitDtos.size());
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Некорректная строка NDJSON: " + e.getOriginalMessage());
+        }
+
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        return endpointHitDtos;
+    }
+
+    private void checkBatchSize(int size) {
+        if (size > maxBatchSize) {
+            throw new IllegalArgumentException("Размер пачки превышает " + maxBatchSize + " hit'ов");
+        }
     }
-}
\ No newline at end of file
+}
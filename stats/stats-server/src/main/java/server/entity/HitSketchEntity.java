@@ -0,0 +1,39 @@
+package server.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "hit_sketches",
+        uniqueConstraints = @UniqueConstraint(name = "uq_hit_sketches_bucket",
+                columnNames = {"granularity", "bucket_start", "app", "uri"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class HitSketchEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 10)
+    private RollupGranularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "app", nullable = false)
+    private String app;
+
+    @Column(name = "uri", nullable = false)
+    private String uri;
+
+    @Column(name = "sketch", nullable = false)
+    private byte[] sketch;
+}
@@ -0,0 +1,31 @@
+package server.entity;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+public enum RollupGranularity {
+    MINUTE(ChronoUnit.MINUTES, "minute"),
+    HOUR(ChronoUnit.HOURS, "hour"),
+    DAY(ChronoUnit.DAYS, "day");
+
+    private final ChronoUnit unit;
+    private final String sqlUnit;
+
+    RollupGranularity(ChronoUnit unit, String sqlUnit) {
+        this.unit = unit;
+        this.sqlUnit = sqlUnit;
+    }
+
+    public LocalDateTime floor(LocalDateTime dateTime) {
+        return dateTime.truncatedTo(unit);
+    }
+
+    public LocalDateTime ceil(LocalDateTime dateTime) {
+        LocalDateTime floor = floor(dateTime);
+        return floor.equals(dateTime) ? floor : floor.plus(1, unit);
+    }
+
+    public String sqlUnit() {
+        return sqlUnit;
+    }
+}
@@ -0,0 +1,86 @@
+package server.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import server.entity.EndpointHitEntity;
+import server.entity.RollupGranularity;
+import server.store.ConditionalOnJpaHitStore;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+@Repository
+@ConditionalOnJpaHitStore
+@RequiredArgsConstructor
+public class HitJdbcRepository {
+    private static final String INSERT_HIT =
+            "INSERT INTO endpoint_hits (app, uri, ip, timestamp) VALUES (?, ?, ?, ?)";
+
+    private static final String UPSERT_ROLLUP =
+            "INSERT INTO hit_rollups (granularity, bucket_start, app, uri, hits) VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT (granularity, bucket_start, app, uri) " +
+            "DO UPDATE SET hits = hit_rollups.hits + EXCLUDED.hits";
+
+    private static final String BACKFILL_ROLLUPS =
+            "INSERT INTO hit_rollups (granularity, bucket_start, app, uri, hits) " +
+            "SELECT ?, date_trunc('%s', h.timestamp), h.app, h.uri, COUNT(*) " +
+            "FROM endpoint_hits h " +
+            "GROUP BY date_trunc('%s', h.timestamp), h.app, h.uri";
+
+    private static final String SELECT_HITS_SINCE =
+            "SELECT app, uri, ip, timestamp FROM endpoint_hits WHERE timestamp >= ?";
+
+    private static final int STREAM_FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${stats.ingest.jdbc-batch-size:1000}")
+    private int jdbcBatchSize;
+
+    public void saveAll(List<EndpointHitEntity> hits) {
+        if (hits.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_HIT, hits, jdbcBatchSize, (ps, hit) -> {
+            ps.setString(1, hit.getApp());
+            ps.setString(2, hit.getUri());
+            ps.setString(3, hit.getIp());
+            ps.setTimestamp(4, Timestamp.valueOf(hit.getTimestamp()));
+        });
+    }
+
+    public void incrementRollups(List<RollupIncrement> increments) {
+        if (increments.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_ROLLUP, increments, jdbcBatchSize, (ps, increment) -> {
+            ps.setString(1, increment.granularity().name());
+            ps.setTimestamp(2, Timestamp.valueOf(increment.bucketStart()));
+            ps.setString(3, increment.app());
+            ps.setString(4, increment.uri());
+            ps.setLong(5, increment.hits());
+        });
+    }
+
+    // Читает курсором порциями по STREAM_FETCH_SIZE, поэтому нужна транзакция (PostgreSQL не держит курсор в autocommit)
+    public void forEachHitSince(LocalDateTime from, Consumer<EndpointHitEntity> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_HITS_SINCE);
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            statement.setTimestamp(1, Timestamp.valueOf(from));
+            return statement;
+        }, (RowCallbackHandler) rs -> consumer.accept(new EndpointHitEntity(null, rs.getString("app"),
+                rs.getString("uri"), rs.getString("ip"), rs.getTimestamp("timestamp").toLocalDateTime())));
+    }
+
+    public int backfillRollups(RollupGranularity granularity) {
+        String sql = String.format(BACKFILL_ROLLUPS, granularity.sqlUnit(), granularity.sqlUnit());
+        return jdbcTemplate.update(sql, granularity.name());
+    }
+}
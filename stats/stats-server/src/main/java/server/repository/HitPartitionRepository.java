@@ -0,0 +1,101 @@
+package server.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import server.store.ConditionalOnJpaHitStore;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Дневные секции endpoint_hits. Имя секции - endpoint_hits_yyyyMMdd, границы - [день, следующий день).
+ * Все методы нужно вызывать в транзакции: блокировка обслуживания снимается при ее завершении.
+ */
+@Repository
+@ConditionalOnJpaHitStore
+@RequiredArgsConstructor
+public class HitPartitionRepository {
+    private static final String PARENT_TABLE = "endpoint_hits";
+    private static final String DEFAULT_PARTITION = PARENT_TABLE + "_default";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private static final String LOCK = "SELECT pg_advisory_xact_lock(hashtext('" + PARENT_TABLE + "'))";
+
+    private static final String FIND_PARTITIONS =
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = '" + PARENT_TABLE + "'::regclass";
+
+    private static final String FIND_DEFAULT_DAYS =
+            "SELECT DISTINCT CAST(timestamp AS date) FROM " + DEFAULT_PARTITION;
+
+    // Секция собирается отдельно и подключается уже с данными: ATTACH не пропустит строки
+    // этого дня, оставшиеся в секции по умолчанию
+    private static final String CREATE_TABLE = "CREATE TABLE %s (LIKE " + PARENT_TABLE + " INCLUDING DEFAULTS)";
+
+    private static final String MOVE_FROM_DEFAULT =
+            "WITH moved AS (DELETE FROM " + DEFAULT_PARTITION + " WHERE timestamp >= ? AND timestamp < ? " +
+            "RETURNING id, app, uri, ip, timestamp) " +
+            "INSERT INTO %s (id, app, uri, ip, timestamp) SELECT id, app, uri, ip, timestamp FROM moved";
+
+    private static final String ATTACH =
+            "ALTER TABLE " + PARENT_TABLE + " ATTACH PARTITION %s FOR VALUES FROM ('%s') TO ('%s')";
+
+    private static final String DELETE_DEFAULT_BEFORE =
+            "DELETE FROM " + DEFAULT_PARTITION + " WHERE timestamp < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void lock() {
+        jdbcTemplate.query(LOCK, resultSet -> null);
+    }
+
+    public List<LocalDate> findPartitionDays() {
+        return jdbcTemplate.queryForList(FIND_PARTITIONS, String.class).stream()
+                .map(HitPartitionRepository::toDay)
+                .filter(Objects::nonNull)
+                .sorted()
+                .toList();
+    }
+
+    public List<LocalDate> findDefaultPartitionDays() {
+        return jdbcTemplate.queryForList(FIND_DEFAULT_DAYS, LocalDate.class);
+    }
+
+    public int createPartition(LocalDate day) {
+        String partition = partitionName(day);
+        LocalDate nextDay = day.plusDays(1);
+        jdbcTemplate.execute(String.format(CREATE_TABLE, partition));
+        int moved = jdbcTemplate.update(String.format(MOVE_FROM_DEFAULT, partition),
+                Timestamp.valueOf(day.atStartOfDay()), Timestamp.valueOf(nextDay.atStartOfDay()));
+        jdbcTemplate.execute(String.format(ATTACH, partition, day, nextDay));
+        return moved;
+    }
+
+    public void dropPartition(LocalDate day) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partitionName(day));
+    }
+
+    public int deleteFromDefaultBefore(LocalDate day) {
+        return jdbcTemplate.update(DELETE_DEFAULT_BEFORE, Timestamp.valueOf(day.atStartOfDay()));
+    }
+
+    private static String partitionName(LocalDate day) {
+        return PARENT_TABLE + "_" + day.format(SUFFIX);
+    }
+
+    private static LocalDate toDay(String partition) {
+        if (!partition.startsWith(PARENT_TABLE + "_")) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(partition.substring(PARENT_TABLE.length() + 1), SUFFIX);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package server.repository;
+
+import model.ViewStatsDto;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import server.entity.HitRollupEntity;
+import server.entity.RollupGranularity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface HitRollupRepository extends JpaRepository<HitRollupEntity, Long> {
+
+    @Query("SELECT new model.ViewStatsDto(r.app, r.uri, SUM(r.hits)) " +
+            "FROM HitRollupEntity r " +
+            "WHERE r.granularity = :granularity " +
+            "AND r.bucketStart >= :from AND r.bucketStart < :to " +
+            "AND (:uris IS NULL OR r.uri IN :uris) " +
+            "AND (:uriPattern IS NULL OR r.uri LIKE :uriPattern ESCAPE '!') " +
+            "GROUP BY r.app, r.uri")
+    List<ViewStatsDto> sumHits(@Param("granularity") RollupGranularity granularity,
+                               @Param("from") LocalDateTime from,
+                               @Param("to") LocalDateTime to,
+                               @Param("uris") List<String> uris,
+                               @Param("uriPattern") String uriPattern);
+}
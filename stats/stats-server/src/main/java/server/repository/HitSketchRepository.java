@@ -0,0 +1,185 @@
+package server.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import server.entity.RollupGranularity;
+import server.sketch.HyperLogLog;
+import server.store.ConditionalOnJpaHitStore;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@ConditionalOnJpaHitStore
+@RequiredArgsConstructor
+public class HitSketchRepository {
+    // Порядок вставки и блокировки - позиция ключа в массиве (ord), то есть порядок SketchKey из Java.
+    // ORDER BY по самим столбцам зависел бы от collation БД и мог разойтись с порядком вставки
+    private static final String KEYS_TABLE =
+            "unnest(?::varchar[], ?::timestamp[], ?::varchar[], ?::varchar[]) WITH ORDINALITY " +
+            "AS k(granularity, bucket_start, app, uri, ord)";
+
+    private static final String INSERT_MISSING =
+            "INSERT INTO hit_sketches (granularity, bucket_start, app, uri, sketch) " +
+            "SELECT k.granularity, k.bucket_start, k.app, k.uri, ? FROM " + KEYS_TABLE + " " +
+            "ORDER BY k.ord " +
+            "ON CONFLICT (granularity, bucket_start, app, uri) DO NOTHING";
+
+    private static final String SELECT_FOR_UPDATE =
+            "SELECT s.id, s.granularity, s.bucket_start, s.app, s.uri, s.sketch " +
+            "FROM hit_sketches s JOIN " + KEYS_TABLE + " " +
+            "ON s.granularity = k.granularity AND s.bucket_start = k.bucket_start " +
+            "AND s.app = k.app AND s.uri = k.uri " +
+            "ORDER BY k.ord " +
+            "FOR UPDATE OF s";
+
+    private static final String UPDATE_SKETCH = "UPDATE hit_sketches SET sketch = ? WHERE id = ?";
+
+    private static final String SELECT_SKETCHES =
+            "SELECT app, uri, sketch FROM hit_sketches " +
+            "WHERE granularity = ? AND bucket_start >= ? AND bucket_start < ?";
+
+    private static final String SELECT_DISTINCT_IPS =
+            "SELECT DISTINCT app, uri, ip FROM endpoint_hits WHERE timestamp >= ? AND timestamp < ?";
+
+    private static final String SELECT_BUCKET_IPS =
+            "SELECT DISTINCT date_trunc('%s', timestamp) AS bucket_start, app, uri, ip " +
+            "FROM endpoint_hits ORDER BY bucket_start";
+
+    private static final String URI_FILTER = " AND uri = ANY(?::varchar[])";
+    private static final String URI_PATTERN_FILTER = " AND uri LIKE ? ESCAPE '" + LikePatterns.ESCAPE + "'";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${stats.ingest.jdbc-batch-size:1000}")
+    private int jdbcBatchSize;
+
+    public long count() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM hit_sketches", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Объединяет переданные скетчи с сохраненными. Строки блокируются в едином порядке,
+     * поэтому параллельные пачки ждут друг друга, а не теряют обновления.
+     */
+    public void mergeSketches(Map<SketchKey, HyperLogLog> updates, int precision) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        // Один раз отсортированный список задает порядок и вставки, и блокировки строк
+        List<SketchKey> keys = updates.keySet().stream().sorted().toList();
+        byte[] emptySketch = new HyperLogLog(precision).toBytes();
+
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_MISSING);
+            ps.setBytes(1, emptySketch);
+            bindKeys(con, ps, 2, keys);
+            return ps;
+        });
+
+        Map<Long, byte[]> merged = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_FOR_UPDATE);
+            bindKeys(con, ps, 1, keys);
+            return ps;
+        }, rs -> {
+            SketchKey key = new SketchKey(RollupGranularity.valueOf(rs.getString("granularity")),
+                    rs.getTimestamp("bucket_start").toLocalDateTime(), rs.getString("app"), rs.getString("uri"));
+            HyperLogLog sketch = HyperLogLog.fromBytes(rs.getBytes("sketch")).merge(updates.get(key));
+            merged.put(rs.getLong("id"), sketch.toBytes());
+        });
+
+        jdbcTemplate.batchUpdate(UPDATE_SKETCH, new ArrayList<>(merged.entrySet()), jdbcBatchSize, (ps, entry) -> {
+            ps.setBytes(1, entry.getValue());
+            ps.setLong(2, entry.getKey());
+        });
+    }
+
+    public void forEachSketch(RollupGranularity granularity, LocalDateTime from, LocalDateTime to,
+                              List<String> uris, String uriPattern, RowHandler<byte[]> handler) {
+        String sql = withUriFilters(SELECT_SKETCHES, uris, uriPattern);
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setString(1, granularity.name());
+            ps.setTimestamp(2, Timestamp.valueOf(from));
+            ps.setTimestamp(3, Timestamp.valueOf(to));
+            bindUriFilters(con, ps, 4, uris, uriPattern);
+            return ps;
+        }, rs -> {
+            handler.accept(rs.getString("app"), rs.getString("uri"), rs.getBytes("sketch"));
+        });
+    }
+
+    public void forEachDistinctIp(LocalDateTime from, LocalDateTime to, List<String> uris, String uriPattern,
+                                  RowHandler<String> handler) {
+        String sql = withUriFilters(SELECT_DISTINCT_IPS, uris, uriPattern);
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setTimestamp(1, Timestamp.valueOf(from));
+            ps.setTimestamp(2, Timestamp.valueOf(to));
+            bindUriFilters(con, ps, 3, uris, uriPattern);
+            return ps;
+        }, rs -> {
+            handler.accept(rs.getString("app"), rs.getString("uri"), rs.getString("ip"));
+        });
+    }
+
+    public void forEachBucketIp(RollupGranularity granularity, BucketRowHandler handler) {
+        String sql = String.format(SELECT_BUCKET_IPS, granularity.sqlUnit());
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setFetchSize(jdbcBatchSize);
+            return ps;
+        }, rs -> {
+            handler.accept(rs.getTimestamp("bucket_start").toLocalDateTime(),
+                    rs.getString("app"), rs.getString("uri"), rs.getString("ip"));
+        });
+    }
+
+    private void bindKeys(Connection con, PreparedStatement ps, int firstIndex, List<SketchKey> keys)
+            throws SQLException {
+        ps.setArray(firstIndex, con.createArrayOf("varchar",
+                keys.stream().map(key -> key.granularity().name()).toArray()));
+        ps.setArray(firstIndex + 1, con.createArrayOf("timestamp",
+                keys.stream().map(key -> Timestamp.valueOf(key.bucketStart())).toArray()));
+        ps.setArray(firstIndex + 2, con.createArrayOf("varchar",
+                keys.stream().map(SketchKey::app).toArray()));
+        ps.setArray(firstIndex + 3, con.createArrayOf("varchar",
+                keys.stream().map(SketchKey::uri).toArray()));
+    }
+
+    private static String withUriFilters(String sql, List<String> uris, String uriPattern) {
+        return sql + (uris == null ? "" : URI_FILTER) + (uriPattern == null ? "" : URI_PATTERN_FILTER);
+    }
+
+    private void bindUriFilters(Connection con, PreparedStatement ps, int firstIndex, List<String> uris,
+                                String uriPattern) throws SQLException {
+        int index = firstIndex;
+        if (uris != null) {
+            ps.setArray(index++, con.createArrayOf("varchar", uris.toArray()));
+        }
+        if (uriPattern != null) {
+            ps.setString(index, uriPattern);
+        }
+    }
+
+    @FunctionalInterface
+    public interface RowHandler<T> {
+        void accept(String app, String uri, T value);
+    }
+
+    @FunctionalInterface
+    public interface BucketRowHandler {
+        void accept(LocalDateTime bucketStart, String app, String uri, String ip);
+    }
+}
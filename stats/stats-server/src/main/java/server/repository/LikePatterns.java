@@ -0,0 +1,28 @@
+package server.repository;
+
+/**
+ * Шаблоны LIKE для фильтра по префиксу uri. Экранирующий символ - '!', он же указан в запросах (ESCAPE '!').
+ */
+public final class LikePatterns {
+    public static final char ESCAPE = '!';
+
+    private LikePatterns() {
+    }
+
+    /**
+     * @return шаблон "префикс%" или null, если префикс не задан
+     */
+    public static String startingWith(String prefix) {
+        if (prefix == null) {
+            return null;
+        }
+        StringBuilder pattern = new StringBuilder(prefix.length() + 1);
+        for (char c : prefix.toCharArray()) {
+            if (c == '%' || c == '_' || c == ESCAPE) {
+                pattern.append(ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+}
@@ -0,0 +1,12 @@
+package server.repository;
+
+import server.entity.RollupGranularity;
+
+import java.time.LocalDateTime;
+
+public record RollupIncrement(RollupGranularity granularity,
+                              LocalDateTime bucketStart,
+                              String app,
+                              String uri,
+                              long hits) {
+}
@@ -0,0 +1,21 @@
+package server.repository;
+
+import server.entity.RollupGranularity;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+public record SketchKey(RollupGranularity granularity, LocalDateTime bucketStart, String app, String uri)
+        implements Comparable<SketchKey> {
+
+    private static final Comparator<SketchKey> ORDER = Comparator
+            .comparing(SketchKey::granularity)
+            .thenComparing(SketchKey::bucketStart)
+            .thenComparing(SketchKey::app)
+            .thenComparing(SketchKey::uri);
+
+    @Override
+    public int compareTo(SketchKey other) {
+        return ORDER.compare(this, other);
+    }
+}
@@ -17,19 +17,34 @@ public interface StatsRepository extends JpaRepository<EndpointHitEntity, Long>
             "FROM EndpointHitEntity h " +
             "WHERE h.timestamp BETWEEN :start AND :end " +
             "AND (:uris IS NULL OR h.uri IN :uris) " +
+            "AND (:uriPattern IS NULL OR h.uri LIKE :uriPattern ESCAPE '!') " +
             "GROUP BY h.app, h.uri " +
             "ORDER BY COUNT(h.ip) DESC")
     List<ViewStatsDto> findStats(@Param("start") LocalDateTime start,
                                  @Param("end") LocalDateTime end,
-                                 @Param("uris") List<String> uris);
+                                 @Param("uris") List<String> uris,
+                                 @Param("uriPattern") String uriPattern);
 
     @Query("SELECT new model.ViewStatsDto(h.app, h.uri, COUNT(DISTINCT h.ip)) " +
             "FROM EndpointHitEntity h " +
             "WHERE h.timestamp BETWEEN :start AND :end " +
             "AND (:uris IS NULL OR h.uri IN :uris) " +
+            "AND (:uriPattern IS NULL OR h.uri LIKE :uriPattern ESCAPE '!') " +
             "GROUP BY h.app, h.uri " +
             "ORDER BY COUNT(DISTINCT h.ip) DESC")
     List<ViewStatsDto> findUniqueStats(@Param("start") LocalDateTime start,
                                        @Param("end") LocalDateTime end,
-                                       @Param("uris") List<String> uris);
+                                       @Param("uris") List<String> uris,
+                                 @Param("uriPattern") String uriPattern);
+
+    @Query("SELECT new model.ViewStatsDto(h.app, h.uri, COUNT(h.ip)) " +
+            "FROM EndpointHitEntity h " +
+            "WHERE h.timestamp >= :from AND h.timestamp < :to " +
+            "AND (:uris IS NULL OR h.uri IN :uris) " +
+            "AND (:uriPattern IS NULL OR h.uri LIKE :uriPattern ESCAPE '!') " +
+            "GROUP BY h.app, h.uri")
+    List<ViewStatsDto> countHits(@Param("from") LocalDateTime from,
+                                 @Param("to") LocalDateTime to,
+                                 @Param("uris") List<String> uris,
+                                 @Param("uriPattern") String uriPattern);
 }
\ No newline at end of file
@@ -0,0 +1,100 @@
+package server.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import server.repository.HitPartitionRepository;
+import server.store.ConditionalOnJpaHitStore;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * Обслуживание дневных секций endpoint_hits: заранее создает секции на days-ahead дней вперед,
+ * раскладывает по дням строки из секции по умолчанию и удаляет секции старше retention-days.
+ * Удаление секции целиком заменяет DELETE по диапазону и не оставляет таблице мертвых строк.
+ */
+@Service
+@ConditionalOnJpaHitStore
+@Slf4j
+public class HitPartitionService {
+    private final HitPartitionRepository hitPartitionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int daysAhead;
+    private final int retentionDays;
+
+    public HitPartitionService(HitPartitionRepository hitPartitionRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${stats.partitions.enabled:true}") boolean enabled,
+                               @Value("${stats.partitions.days-ahead:7}") int daysAhead,
+                               @Value("${stats.partitions.retention-days:0}") int retentionDays) {
+        this.hitPartitionRepository = hitPartitionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.daysAhead = daysAhead;
+        this.retentionDays = retentionDays;
+    }
+
+    @Scheduled(fixedDelayString = "${stats.partitions.maintenance-interval:PT1H}")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        // 0 - хранить hit'ы бессрочно
+        LocalDate oldestKept = retentionDays > 0 ? today.minusDays(retentionDays) : LocalDate.MIN;
+
+        try {
+            List<LocalDate> existing = inTransaction(hitPartitionRepository::findPartitionDays);
+
+            Set<LocalDate> missing = new TreeSet<>(inTransaction(hitPartitionRepository::findDefaultPartitionDays));
+            for (int i = 0; i <= daysAhead; i++) {
+                missing.add(today.plusDays(i));
+            }
+            missing.removeIf(day -> day.isBefore(oldestKept));
+            existing.forEach(missing::remove);
+            missing.forEach(this::createPartition);
+
+            if (retentionDays > 0) {
+                existing.stream()
+                        .filter(day -> day.isBefore(oldestKept))
+                        .forEach(this::dropPartition);
+                int deleted = inTransaction(() -> hitPartitionRepository.deleteFromDefaultBefore(oldestKept));
+                if (deleted > 0) {
+                    log.info("Удалено {} hit'ов старше {} из секции по умолчанию", deleted, oldestKept);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Не удалось обслужить секции endpoint_hits: {}", e.getMessage());
+        }
+    }
+
+    private void createPartition(LocalDate day) {
+        // Другой экземпляр сервиса мог создать секцию, пока ждали блокировку
+        int moved = inTransaction(() -> hitPartitionRepository.findPartitionDays().contains(day)
+                ? 0 : hitPartitionRepository.createPartition(day));
+        log.info("Секция endpoint_hits за {} готова, перенесено строк: {}", day, moved);
+    }
+
+    private void dropPartition(LocalDate day) {
+        inTransaction(() -> {
+            hitPartitionRepository.dropPartition(day);
+            return null;
+        });
+        log.info("Удалена секция endpoint_hits за {}", day);
+    }
+
+    private <T> T inTransaction(Supplier<T> action) {
+        return transactionTemplate.execute(status -> {
+            hitPartitionRepository.lock();
+            return action.get();
+        });
+    }
+}
@@ -0,0 +1,101 @@
+package server.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import model.ViewStatsDto;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import server.entity.EndpointHitEntity;
+import server.entity.RollupGranularity;
+import server.repository.HitJdbcRepository;
+import server.repository.HitRollupRepository;
+import server.repository.LikePatterns;
+import server.repository.RollupIncrement;
+import server.repository.StatsRepository;
+import server.store.ConditionalOnJpaHitStore;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@ConditionalOnJpaHitStore
+@RequiredArgsConstructor
+@Slf4j
+public class HitRollupService {
+    private static final List<RollupGranularity> GRANULARITIES =
+            List.of(RollupGranularity.DAY, RollupGranularity.HOUR, RollupGranularity.MINUTE);
+
+    private static final Comparator<RollupIncrement> LOCK_ORDER = Comparator
+            .comparing(RollupIncrement::granularity)
+            .thenComparing(RollupIncrement::bucketStart)
+            .thenComparing(RollupIncrement::app)
+            .thenComparing(RollupIncrement::uri);
+
+    private final HitRollupRepository hitRollupRepository;
+    private final StatsRepository statsRepository;
+    private final HitJdbcRepository hitJdbcRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @PostConstruct
+    public void backfill() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (hitRollupRepository.count() > 0 || statsRepository.count() == 0) {
+                return;
+            }
+            log.info("Заполнение агрегатов по уже сохраненным hit'ам");
+            GRANULARITIES.forEach(granularity -> {
+                int rows = hitJdbcRepository.backfillRollups(granularity);
+                log.info("Агрегаты {}: создано {} строк", granularity, rows);
+            });
+        });
+    }
+
+    public void record(List<EndpointHitEntity> hits) {
+        Map<BucketKey, Long> counts = new HashMap<>();
+        for (EndpointHitEntity hit : hits) {
+            for (RollupGranularity granularity : GRANULARITIES) {
+                BucketKey key = new BucketKey(granularity, granularity.floor(hit.getTimestamp()),
+                        hit.getApp(), hit.getUri());
+                counts.merge(key, 1L, Long::sum);
+            }
+        }
+
+        // Единый порядок обновления строк, чтобы параллельные пачки не ловили deadlock
+        List<RollupIncrement> increments = counts.entrySet().stream()
+                .map(entry -> new RollupIncrement(entry.getKey().granularity(), entry.getKey().bucketStart(),
+                        entry.getKey().app(), entry.getKey().uri(), entry.getValue()))
+                .sorted(LOCK_ORDER)
+                .toList();
+        hitJdbcRepository.incrementRollups(increments);
+    }
+
+    public List<ViewStatsDto> findStats(LocalDateTime start, LocalDateTime end, List<String> uris, String uriPrefix) {
+        String uriPattern = LikePatterns.startingWith(uriPrefix);
+        List<TimeBuckets.TimeSlice> slices = TimeBuckets.splitInclusive(start, end, GRANULARITIES);
+
+        Map<AppUri, Long> hitsByUri = new HashMap<>();
+        for (TimeBuckets.TimeSlice slice : slices) {
+            List<ViewStatsDto> part = slice.isRaw()
+                    ? statsRepository.countHits(slice.from(), slice.to(), uris, uriPattern)
+                    : hitRollupRepository.sumHits(slice.granularity(), slice.from(), slice.to(), uris, uriPattern);
+            part.forEach(stat -> hitsByUri.merge(new AppUri(stat.getApp(), stat.getUri()), stat.getHits(), Long::sum));
+        }
+        log.debug("Статистика собрана из {} интервалов", slices.size());
+
+        return hitsByUri.entrySet().stream()
+                .map(entry -> new ViewStatsDto(entry.getKey().app(), entry.getKey().uri(), entry.getValue()))
+                .sorted(Comparator.comparing(ViewStatsDto::getHits).reversed())
+                .toList();
+    }
+
+    private record BucketKey(RollupGranularity granularity, LocalDateTime bucketStart, String app, String uri) {
+    }
+
+    private record AppUri(String app, String uri) {
+    }
+}
@@ -0,0 +1,110 @@
+package server.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import model.ViewStatsDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import server.entity.EndpointHitEntity;
+import server.entity.RollupGranularity;
+import server.repository.HitSketchRepository;
+import server.repository.LikePatterns;
+import server.repository.SketchKey;
+import server.repository.StatsRepository;
+import server.sketch.HyperLogLog;
+import server.store.ConditionalOnJpaHitStore;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@ConditionalOnJpaHitStore
+@RequiredArgsConstructor
+@Slf4j
+public class HitSketchService {
+    // Минутные скетчи не храним: края запроса короче часа дешевле досчитать по сырым данным
+    private static final List<RollupGranularity> GRANULARITIES =
+            List.of(RollupGranularity.DAY, RollupGranularity.HOUR);
+
+    private final HitSketchRepository hitSketchRepository;
+    private final StatsRepository statsRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${stats.sketch.precision:14}")
+    private int precision;
+
+    @PostConstruct
+    public void backfill() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (hitSketchRepository.count() > 0 || statsRepository.count() == 0) {
+                return;
+            }
+            log.info("Построение скетчей уникальных посетителей по уже сохраненным hit'ам");
+            GRANULARITIES.forEach(this::backfill);
+        });
+    }
+
+    public void record(List<EndpointHitEntity> hits) {
+        Map<SketchKey, HyperLogLog> updates = new HashMap<>();
+        for (EndpointHitEntity hit : hits) {
+            for (RollupGranularity granularity : GRANULARITIES) {
+                SketchKey key = new SketchKey(granularity, granularity.floor(hit.getTimestamp()),
+                        hit.getApp(), hit.getUri());
+                updates.computeIfAbsent(key, k -> new HyperLogLog(precision)).add(hit.getIp());
+            }
+        }
+        hitSketchRepository.mergeSketches(updates, precision);
+    }
+
+    public List<ViewStatsDto> findUniqueStats(LocalDateTime start, LocalDateTime end, List<String> uris,
+                                              String uriPrefix) {
+        String uriPattern = LikePatterns.startingWith(uriPrefix);
+        List<TimeBuckets.TimeSlice> slices = TimeBuckets.splitInclusive(start, end, GRANULARITIES);
+
+        Map<AppUri, HyperLogLog> sketchesByUri = new HashMap<>();
+        for (TimeBuckets.TimeSlice slice : slices) {
+            if (slice.isRaw()) {
+                hitSketchRepository.forEachDistinctIp(slice.from(), slice.to(), uris, uriPattern, (app, uri, ip) ->
+                        sketchesByUri.computeIfAbsent(new AppUri(app, uri), k -> new HyperLogLog(precision)).add(ip));
+            } else {
+                hitSketchRepository.forEachSketch(slice.granularity(), slice.from(), slice.to(), uris, uriPattern,
+                        (app, uri, sketch) -> sketchesByUri.merge(new AppUri(app, uri),
+                                HyperLogLog.fromBytes(sketch), HyperLogLog::merge));
+            }
+        }
+        log.debug("Оценка уникальных посетителей собрана из {} интервалов", slices.size());
+
+        return sketchesByUri.entrySet().stream()
+                .filter(entry -> !entry.getValue().isEmpty())
+                .map(entry -> new ViewStatsDto(entry.getKey().app(), entry.getKey().uri(),
+                        entry.getValue().estimate()))
+                .sorted(Comparator.comparing(ViewStatsDto::getHits).reversed())
+                .toList();
+    }
+
+    private void backfill(RollupGranularity granularity) {
+        Map<SketchKey, HyperLogLog> bucket = new HashMap<>();
+        LocalDateTime[] currentBucket = new LocalDateTime[1];
+        hitSketchRepository.forEachBucketIp(granularity, (bucketStart, app, uri, ip) -> {
+            // Строки отсортированы по бакету: накопленное сбрасываем при переходе к следующему
+            if (!bucketStart.equals(currentBucket[0])) {
+                hitSketchRepository.mergeSketches(bucket, precision);
+                bucket.clear();
+                currentBucket[0] = bucketStart;
+            }
+            bucket.computeIfAbsent(new SketchKey(granularity, bucketStart, app, uri),
+                    k -> new HyperLogLog(precision)).add(ip);
+        });
+        hitSketchRepository.mergeSketches(bucket, precision);
+        log.info("Скетчи {} построены", granularity);
+    }
+
+    private record AppUri(String app, String uri) {
+    }
+}
@@ -0,0 +1,218 @@
+package server.service;
+
+import lombok.extern.slf4j.Slf4j;
+import model.ViewStatsDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import server.columnar.HitAggregation;
+import server.columnar.HitChunk;
+import server.columnar.StringInterner;
+import server.entity.EndpointHitEntity;
+import server.repository.HitJdbcRepository;
+import server.store.ConditionalOnJpaHitStore;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Hit'ы за последние window в памяти: чанки по chunk-duration, внутри - колонки времени и кодов app, uri, ip.
+ * Запросы статистики, окно которых начинается не раньше горизонта, считаются по памяти без обращения к БД.
+ * В памяти только hit'ы, записанные через этот экземпляр, поэтому кэш включается явно (stats.recent.enabled)
+ * и только когда экземпляр stats-server над БД один.
+ */
+@Service
+@ConditionalOnJpaHitStore
+@Slf4j
+public class RecentHitsService {
+    private static final long NOT_READY = Long.MAX_VALUE;
+
+    private final HitJdbcRepository hitJdbcRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final Duration window;
+    private final long chunkSeconds;
+    private final Clock clock;
+
+    private final StringInterner apps = new StringInterner();
+    private final StringInterner uris = new StringInterner();
+    private final StringInterner ips = new StringInterner();
+    private final ConcurrentSkipListMap<Long, HitChunk> chunks = new ConcurrentSkipListMap<>();
+    // Запись в БД идет под общей блокировкой, загрузка из БД - под исключительной:
+    // hit, сохраненный во время загрузки, не потеряется и не задвоится
+    private final ReentrantReadWriteLock ingestLock = new ReentrantReadWriteLock();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    // Первая секунда, начиная с которой в памяти есть все hit'ы
+    private volatile long horizon = NOT_READY;
+
+    @Autowired
+    public RecentHitsService(HitJdbcRepository hitJdbcRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${stats.recent.enabled:false}") boolean enabled,
+                             @Value("${stats.recent.window:PT24H}") Duration window,
+                             @Value("${stats.recent.chunk-duration:PT10M}") Duration chunkDuration) {
+        this(hitJdbcRepository, transactionManager, enabled, window, chunkDuration, Clock.systemDefaultZone());
+    }
+
+    // clock подменяется в тестах: от него зависит горизонт при загрузке и вытеснении
+    RecentHitsService(HitJdbcRepository hitJdbcRepository, PlatformTransactionManager transactionManager,
+                      boolean enabled, Duration window, Duration chunkDuration, Clock clock) {
+        this.hitJdbcRepository = hitJdbcRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.window = window;
+        this.chunkSeconds = chunkDuration.toSeconds();
+        this.clock = clock;
+    }
+
+    // Пока hit'ы грузятся, статистика считается по БД, поэтому старт сервиса загрузку не ждет
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (enabled) {
+            Thread.ofPlatform().name("recent-hits-warmup").daemon().start(this::load);
+        }
+    }
+
+    /**
+     * Выполняет запись в БД и после успешной фиксации добавляет hit'ы в память.
+     */
+    public <T> T write(List<EndpointHitEntity> hits, Supplier<T> action) {
+        if (!enabled) {
+            return action.get();
+        }
+        ingestLock.readLock().lock();
+        try {
+            T result = action.get();
+            appendLock.lock();
+            try {
+                long loadedFrom = horizon;
+                if (loadedFrom != NOT_READY) {
+                    hits.stream()
+                            .filter(hit -> toEpochSecond(hit.getTimestamp()) >= loadedFrom)
+                            .forEach(this::append);
+                }
+            } finally {
+                appendLock.unlock();
+            }
+            return result;
+        } finally {
+            ingestLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return статистика по памяти или пустой Optional, если окно начинается раньше горизонта
+     */
+    public Optional<List<ViewStatsDto>> findStats(LocalDateTime start, LocalDateTime end, List<String> uriFilter,
+                                                  String uriPrefix, boolean unique) {
+        long from = toEpochSecond(start);
+        long to = toEpochSecond(end);
+        if (!enabled || from < horizon) {
+            return Optional.empty();
+        }
+        if (from > to) {
+            return Optional.of(List.of());
+        }
+
+        boolean[] uriMask = null;
+        if (uriFilter != null && !uriFilter.isEmpty()) {
+            int[] uriIds = uriFilter.stream().mapToInt(uris::find).filter(id -> id >= 0).toArray();
+            if (uriIds.length == 0) {
+                return Optional.of(List.of());
+            }
+            uriMask = new boolean[Arrays.stream(uriIds).max().orElseThrow() + 1];
+            for (int uriId : uriIds) {
+                uriMask[uriId] = true;
+            }
+        }
+        if (uriPrefix != null) {
+            uriMask = prefixMask(uriPrefix, uriMask);
+        }
+
+        HitAggregation aggregation = new HitAggregation(unique, uriMask);
+        chunks.subMap(chunkStart(from), true, chunkStart(to), true).values()
+                .forEach(chunk -> chunk.aggregate(from, to, aggregation));
+        // Пока считали, старые чанки могли вытеснить
+        if (from < horizon) {
+            return Optional.empty();
+        }
+        return Optional.of(aggregation.toStats(apps, uris));
+    }
+
+    // Префикс проверяется один раз на код uri, а не на каждый hit; с маской точных uri - пересечение
+    private boolean[] prefixMask(String uriPrefix, boolean[] uriMask) {
+        int size = uriMask != null ? uriMask.length : uris.size();
+        boolean[] mask = new boolean[size];
+        for (int uriId = 0; uriId < size; uriId++) {
+            String uri = uris.valueOf(uriId);
+            mask[uriId] = (uriMask == null || uriMask[uriId]) && uri != null && uri.startsWith(uriPrefix);
+        }
+        return mask;
+    }
+
+    @Scheduled(fixedDelayString = "${stats.recent.eviction-interval:PT1M}")
+    public void evict() {
+        if (horizon == NOT_READY) {
+            return;
+        }
+        long newHorizon = chunkStart(toEpochSecond(LocalDateTime.now(clock).minus(window)));
+        appendLock.lock();
+        try {
+            if (newHorizon > horizon) {
+                horizon = newHorizon;
+                chunks.headMap(newHorizon).clear();
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void load() {
+        ingestLock.writeLock().lock();
+        try {
+            long from = chunkStart(toEpochSecond(LocalDateTime.now(clock).minus(window)));
+            readOnlyTransaction.executeWithoutResult(status ->
+                    hitJdbcRepository.forEachHitSince(LocalDateTime.ofEpochSecond(from, 0, ZoneOffset.UTC),
+                            this::append));
+            horizon = from;
+            log.info("В память загружено {} hit'ов начиная с {}",
+                    chunks.values().stream().mapToLong(HitChunk::size).sum(),
+                    LocalDateTime.ofEpochSecond(from, 0, ZoneOffset.UTC));
+        } catch (RuntimeException e) {
+            chunks.clear();
+            log.warn("Не удалось загрузить недавние hit'ы, статистика будет считаться по БД: {}", e.getMessage());
+        } finally {
+            ingestLock.writeLock().unlock();
+        }
+    }
+
+    private void append(EndpointHitEntity hit) {
+        long epochSecond = toEpochSecond(hit.getTimestamp());
+        long chunkStart = chunkStart(epochSecond);
+        chunks.computeIfAbsent(chunkStart, start -> new HitChunk(start, start + chunkSeconds))
+                .append(epochSecond, apps.intern(hit.getApp()), uris.intern(hit.getUri()), ips.intern(hit.getIp()));
+    }
+
+    private long chunkStart(long epochSecond) {
+        return Math.floorDiv(epochSecond, chunkSeconds) * chunkSeconds;
+    }
+
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -5,9 +5,9 @@ import lombok.extern.slf4j.Slf4j;
 import model.EndpointHitDto;
 import model.ViewStatsDto;
 import org.springframework.stereotype.Service;
-import server.repository.StatsRepository;
 import server.entity.EndpointHitEntity;
 import server.mapper.EndpointHitMapper;
+import server.store.HitStore;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -17,27 +17,37 @@ import java.util.List;
 @Slf4j
 public class StatsService {
 
-    private final StatsRepository statsRepository;
+    private final HitStore hitStore;
     private final EndpointHitMapper endpointHitMapper;
 
     public EndpointHitDto saveHit(EndpointHitDto endpointHitDto) {
         log.info("Сохранение hit: {}", endpointHitDto);
-        EndpointHitEntity entity = endpointHitMapper.toEntity(endpointHitDto);
-        EndpointHitEntity savedEntity = statsRepository.save(entity);
+        EndpointHitEntity savedEntity = hitStore.save(endpointHitMapper.toEntity(endpointHitDto));
         return endpointHitMapper.toDto(savedEntity);
     }
 
-    public List<ViewStatsDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique) {
-        log.info("Получение статистики: start={}, end={}, uris={}, unique={}", start, end, uris, unique);
+    public void saveHits(List<EndpointHitDto> endpointHitDtos) {
+        log.info("Сохранение пачки hit'ов: {}", endpointHitDtos.size());
+        List<EndpointHitEntity> entities = endpointHitDtos.stream()
+                .map(endpointHitMapper::toEntity)
+                .toList();
+        hitStore.saveAll(entities);
+    }
+
+    public List<ViewStatsDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique,
+                                       Boolean approximate) {
+        return getStats(start, end, uris, null, unique, approximate);
+    }
+
+    public List<ViewStatsDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, String uriPrefix,
+                                       Boolean unique, Boolean approximate) {
+        log.info("Получение статистики: start={}, end={}, uris={}, uriPrefix={}, unique={}, approximate={}",
+                start, end, uris, uriPrefix, unique, approximate);
 
-        List<ViewStatsDto> result;
-        if (Boolean.TRUE.equals(unique)) {
-            result = statsRepository.findUniqueStats(start, end, uris);
-        } else {
-            result = statsRepository.findStats(start, end, uris);
-        }
+        List<ViewStatsDto> result = hitStore.findStats(start, end, uris, uriPrefix, Boolean.TRUE.equals(unique),
+                Boolean.TRUE.equals(approximate));
 
         log.info("Результат статистики: {}", result);
         return result;
     }
-}
\ No newline at end of file
+}
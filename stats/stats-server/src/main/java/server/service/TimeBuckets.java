@@ -0,0 +1,70 @@
+package server.service;
+
+import server.entity.RollupGranularity;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class TimeBuckets {
+
+    private TimeBuckets() {
+    }
+
+    /**
+     * Разбивает отрезок [start, end] запроса статистики. Время hit'ов хранится с точностью до секунды,
+     * поэтому границы приводятся к целым секундам: [start, end] == [ceil(start), floor(end) + 1s).
+     * Без этого end с долями секунды терял бы hit'ы своей секунды или захватывал лишние.
+     */
+    public static List<TimeSlice> splitInclusive(LocalDateTime start, LocalDateTime end,
+                                                 List<RollupGranularity> granularities) {
+        LocalDateTime from = start.truncatedTo(ChronoUnit.SECONDS);
+        if (from.isBefore(start)) {
+            from = from.plusSeconds(1);
+        }
+        return split(from, end.truncatedTo(ChronoUnit.SECONDS).plusSeconds(1), granularities);
+    }
+
+    /**
+     * Разбивает полуинтервал [from, to) на куски: середина покрывается целыми бакетами
+     * самой крупной гранулярности, края - бакетами помельче. Куски с granularity == null
+     * не выровнены ни по одной гранулярности и должны считаться по сырым данным.
+     */
+    public static List<TimeSlice> split(LocalDateTime from, LocalDateTime to, List<RollupGranularity> granularities) {
+        List<TimeSlice> slices = new ArrayList<>();
+        split(from, to, granularities, 0, slices);
+        return slices;
+    }
+
+    private static void split(LocalDateTime from, LocalDateTime to, List<RollupGranularity> granularities,
+                              int level, List<TimeSlice> slices) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        if (level == granularities.size()) {
+            slices.add(new TimeSlice(null, from, to));
+            return;
+        }
+
+        RollupGranularity granularity = granularities.get(level);
+        LocalDateTime alignedFrom = granularity.ceil(from);
+        LocalDateTime alignedTo = granularity.floor(to);
+
+        if (!alignedFrom.isBefore(alignedTo)) {
+            split(from, to, granularities, level + 1, slices);
+            return;
+        }
+
+        split(from, alignedFrom, granularities, level + 1, slices);
+        slices.add(new TimeSlice(granularity, alignedFrom, alignedTo));
+        split(alignedTo, to, granularities, level + 1, slices);
+    }
+
+    public record TimeSlice(RollupGranularity granularity, LocalDateTime from, LocalDateTime to) {
+
+        public boolean isRaw() {
+            return granularity == null;
+        }
+    }
+}
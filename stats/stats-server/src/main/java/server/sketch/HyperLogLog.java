@@ -0,0 +1,184 @@
+package server.sketch;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * HyperLogLog-скетч для оценки числа уникальных значений. Скетчи одной точности объединяются
+ * покомпонентным максимумом регистров, скетч большей точности можно свернуть к меньшей.
+ * В сериализованном виде маленькие скетчи хранятся разреженно (индекс + значение регистра).
+ */
+public final class HyperLogLog {
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 16;
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final byte SPARSE = 0;
+    private static final byte DENSE = 1;
+    private static final int HEADER_SIZE = 3;
+    private static final int SPARSE_ENTRY_SIZE = 3;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Точность HyperLogLog должна быть от " + MIN_PRECISION +
+                    " до " + MAX_PRECISION + ": " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public void add(String value) {
+        addHash(hash(value));
+    }
+
+    void addHash(long hash) {
+        int index = (int) (hash >>> (Long.SIZE - precision));
+        // Сторожевой бит ограничивает ранг значением 64 - precision + 1
+        long rest = (hash << precision) | (1L << (precision - 1));
+        int rank = Long.numberOfLeadingZeros(rest) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    /**
+     * Объединяет скетчи. Результат имеет меньшую из двух точностей; если свертка не нужна,
+     * объединение выполняется на месте и возвращается этот же скетч.
+     */
+    public HyperLogLog merge(HyperLogLog other) {
+        if (other.precision < precision) {
+            return fold(other.precision).merge(other);
+        }
+        HyperLogLog source = other.precision > precision ? other.fold(precision) : other;
+        for (int i = 0; i < registers.length; i++) {
+            if (source.registers[i] > registers[i]) {
+                registers[i] = source.registers[i];
+            }
+        }
+        return this;
+    }
+
+    public HyperLogLog fold(int targetPrecision) {
+        if (targetPrecision > precision) {
+            throw new IllegalArgumentException("Скетч можно свернуть только к меньшей точности");
+        }
+        HyperLogLog folded = new HyperLogLog(targetPrecision);
+        int shift = precision - targetPrecision;
+        for (int i = 0; i < registers.length; i++) {
+            if (registers[i] == 0) {
+                continue;
+            }
+            // Отброшенные младшие биты индекса становятся старшими битами остатка хеша
+            int droppedBits = i & ((1 << shift) - 1);
+            int rank = droppedBits == 0
+                    ? shift + registers[i]
+                    : Integer.numberOfLeadingZeros(droppedBits) - (Integer.SIZE - shift) + 1;
+            int index = i >>> shift;
+            if (rank > folded.registers[index]) {
+                folded.registers[index] = (byte) rank;
+            }
+        }
+        return folded;
+    }
+
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public boolean isEmpty() {
+        for (byte register : registers) {
+            if (register != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public byte[] toBytes() {
+        int nonZero = 0;
+        for (byte register : registers) {
+            if (register != 0) {
+                nonZero++;
+            }
+        }
+
+        if (nonZero * SPARSE_ENTRY_SIZE < registers.length) {
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + nonZero * SPARSE_ENTRY_SIZE);
+            buffer.put(FORMAT_VERSION).put((byte) precision).put(SPARSE);
+            for (int i = 0; i < registers.length; i++) {
+                if (registers[i] != 0) {
+                    buffer.putShort((short) i).put(registers[i]);
+                }
+            }
+            return buffer.array();
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + registers.length);
+        buffer.put(FORMAT_VERSION).put((byte) precision).put(DENSE).put(registers);
+        return buffer.array();
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (bytes.length < HEADER_SIZE || buffer.get() != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Неизвестный формат скетча");
+        }
+        HyperLogLog sketch = new HyperLogLog(buffer.get());
+        byte format = buffer.get();
+        if (format == DENSE) {
+            buffer.get(sketch.registers);
+        } else if (format == SPARSE) {
+            while (buffer.hasRemaining()) {
+                int index = Short.toUnsignedInt(buffer.getShort());
+                sketch.registers[index] = buffer.get();
+            }
+        } else {
+            throw new IllegalArgumentException("Неизвестный формат скетча: " + format);
+        }
+        return sketch;
+    }
+
+    static long hash(String value) {
+        // FNV-1a с финальным перемешиванием из MurmurHash3, чтобы старшие биты были равномерными
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static double alpha(int m) {
+        return switch (m) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1 + 1.079 / m);
+        };
+    }
+}
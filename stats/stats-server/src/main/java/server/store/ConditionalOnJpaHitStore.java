@@ -0,0 +1,15 @@
+package server.store;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+
+import java.lang.annotation.*;
+
+/**
+ * Бины, которым нужна БД. Без них stats-server поднимается с stats.store=segment-log и без DataSource.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@ConditionalOnProperty(name = "stats.store", havingValue = "jpa", matchIfMissing = true)
+public @interface ConditionalOnJpaHitStore {
+}
@@ -0,0 +1,25 @@
+package server.store;
+
+import model.ViewStatsDto;
+import server.entity.EndpointHitEntity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Хранилище hit'ов. Реализация выбирается свойством stats.store: jpa (PostgreSQL, по умолчанию)
+ * или segment-log (встроенный журнал сегментов на диске, для узлов без БД).
+ */
+public interface HitStore {
+
+    EndpointHitEntity save(EndpointHitEntity hit);
+
+    void saveAll(List<EndpointHitEntity> hits);
+
+    /**
+     * @param uris      точные uri или null - без фильтра
+     * @param uriPrefix префикс uri или null - без фильтра; вместе с uris учитываются uri, подходящие под оба
+     */
+    List<ViewStatsDto> findStats(LocalDateTime start, LocalDateTime end, List<String> uris, String uriPrefix,
+                                 boolean unique, boolean approximate);
+}
@@ -0,0 +1,80 @@
+package server.store;
+
+import model.ViewStatsDto;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import server.entity.EndpointHitEntity;
+import server.repository.HitJdbcRepository;
+import server.repository.LikePatterns;
+import server.repository.StatsRepository;
+import server.service.HitRollupService;
+import server.service.HitSketchService;
+import server.service.RecentHitsService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Component
+@ConditionalOnJpaHitStore
+public class JpaHitStore implements HitStore {
+    private final StatsRepository statsRepository;
+    private final HitJdbcRepository hitJdbcRepository;
+    private final HitRollupService hitRollupService;
+    private final HitSketchService hitSketchService;
+    private final RecentHitsService recentHitsService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public JpaHitStore(StatsRepository statsRepository,
+                       HitJdbcRepository hitJdbcRepository,
+                       HitRollupService hitRollupService,
+                       HitSketchService hitSketchService,
+                       RecentHitsService recentHitsService,
+                       PlatformTransactionManager transactionManager) {
+        this.statsRepository = statsRepository;
+        this.hitJdbcRepository = hitJdbcRepository;
+        this.hitRollupService = hitRollupService;
+        this.hitSketchService = hitSketchService;
+        this.recentHitsService = recentHitsService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // Транзакция фиксируется внутри write, и только после этого hit'ы попадают в память
+    @Override
+    public EndpointHitEntity save(EndpointHitEntity hit) {
+        return recentHitsService.write(List.of(hit), () -> transactionTemplate.execute(status -> {
+            EndpointHitEntity savedEntity = statsRepository.save(hit);
+            hitRollupService.record(List.of(savedEntity));
+            hitSketchService.record(List.of(savedEntity));
+            return savedEntity;
+        }));
+    }
+
+    @Override
+    public void saveAll(List<EndpointHitEntity> hits) {
+        recentHitsService.write(hits, () -> transactionTemplate.execute(status -> {
+            hitJdbcRepository.saveAll(hits);
+            hitRollupService.record(hits);
+            hitSketchService.record(hits);
+            return null;
+        }));
+    }
+
+    // Недавние окна считаются по памяти точно, в том числе при approximate=true
+    @Override
+    public List<ViewStatsDto> findStats(LocalDateTime start, LocalDateTime end, List<String> uris, String uriPrefix,
+                                        boolean unique, boolean approximate) {
+        return recentHitsService.findStats(start, end, uris, uriPrefix, unique)
+                .orElseGet(() -> readOnlyTransaction.execute(status -> {
+                    if (unique && approximate) {
+                        return hitSketchService.findUniqueStats(start, end, uris, uriPrefix);
+                    } else if (unique) {
+                        return statsRepository.findUniqueStats(start, end, uris, LikePatterns.startingWith(uriPrefix));
+                    }
+                    return hitRollupService.findStats(start, end, uris, uriPrefix);
+                }));
+    }
+}
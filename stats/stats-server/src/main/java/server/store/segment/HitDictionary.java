@@ -0,0 +1,143 @@
+package server.store.segment;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Словарь строк (app, uri, ip) журнала hit'ов. Хранится в dictionary.log: запись - длина (int) и байты UTF-8,
+ * номер записи - код строки. Файл только дописывается, недописанный хвост отбрасывается при открытии.
+ */
+@Slf4j
+class HitDictionary implements AutoCloseable {
+    static final String FILE_NAME = "dictionary.log";
+
+    private final FileChannel channel;
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    // Запись: сначала строка в массив, затем size; чтение: сначала size, затем массив
+    private volatile String[] values = new String[1024];
+    private volatile int size;
+    // Запись в файл под блокировкой: synchronized удерживал бы поток-носитель виртуального потока
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    HitDictionary(Path dir) {
+        try {
+            channel = FileChannel.open(dir.resolve(FILE_NAME),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            load();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть словарь журнала hit'ов", e);
+        }
+    }
+
+    Integer findId(String value) {
+        return ids.get(value);
+    }
+
+    int idOf(String value) {
+        Integer id = ids.get(value);
+        return id != null ? id : append(value);
+    }
+
+    // null для кода, запись которого не успела попасть на диск до сбоя
+    String valueOf(int id) {
+        int published = size;
+        return id >= 0 && id < published ? values[id] : null;
+    }
+
+    void force() {
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось сбросить словарь журнала hit'ов на диск", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.force(false);
+        channel.close();
+    }
+
+    private int append(String value) {
+        appendLock.lock();
+        try {
+            return appendLocked(value);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private int appendLocked(String value) {
+        Integer existing = ids.get(value);
+        if (existing != null) {
+            return existing;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + bytes.length).putInt(bytes.length).put(bytes).flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, channel.size());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось дописать словарь журнала hit'ов", e);
+        }
+
+        int id = add(value);
+        ids.put(value, id);
+        return id;
+    }
+
+    private int add(String value) {
+        int id = size;
+        if (id == values.length) {
+            values = Arrays.copyOf(values, id * 2);
+        }
+        values[id] = value;
+        size = id + 1;
+        return id;
+    }
+
+    private void load() throws IOException {
+        long size = channel.size();
+        ByteBuffer lengthBuffer = ByteBuffer.allocate(Integer.BYTES);
+        long position = 0;
+        while (position + Integer.BYTES <= size) {
+            lengthBuffer.clear();
+            readFully(lengthBuffer, position);
+            int length = lengthBuffer.flip().getInt();
+            if (length < 0 || position + Integer.BYTES + length > size) {
+                break;
+            }
+            ByteBuffer bytes = ByteBuffer.allocate(length);
+            readFully(bytes, position + Integer.BYTES);
+            String value = new String(bytes.array(), StandardCharsets.UTF_8);
+            ids.put(value, add(value));
+            position += Integer.BYTES + length;
+        }
+
+        if (position < size) {
+            log.warn("Словарь журнала hit'ов: отброшен недописанный хвост {} байт", size - position);
+            channel.truncate(position);
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Неожиданный конец словаря");
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package server.store.segment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Файл сегмента: заголовок (число записей, номер последнего сегмента, который он заменяет после компактификации)
+ * и записи фиксированной длины - время в секундах UTC и коды app, uri, ip из словаря.
+ * Сегмент покрывает один интервал времени; файл отображается в память целиком.
+ */
+class HitSegment implements AutoCloseable {
+    static final String EXTENSION = ".seg";
+
+    private static final int HEADER_SIZE = 2 * Long.BYTES;
+    private static final int RECORD_SIZE = Long.BYTES + 3 * Integer.BYTES;
+
+    private final Path path;
+    private final long bucketStart;
+    private final long seq;
+    private final long replacesUpToSeq;
+    private final int capacity;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    // Публикуется после записи очередной записи, читатели не заходят дальше него
+    private volatile int count;
+
+    private HitSegment(Path path, long bucketStart, long seq, FileChannel channel) throws IOException {
+        this.path = path;
+        this.bucketStart = bucketStart;
+        this.seq = seq;
+        this.channel = channel;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        this.capacity = (int) ((channel.size() - HEADER_SIZE) / RECORD_SIZE);
+        this.count = (int) Math.min(Math.max(buffer.getLong(0), 0), capacity);
+        this.replacesUpToSeq = buffer.getLong(Long.BYTES);
+    }
+
+    static HitSegment create(Path dir, long bucketStart, long seq, int capacity) {
+        Path path = dir.resolve(fileName(bucketStart, seq));
+        try {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            // Файл сразу получает полный размер, но остается разреженным до записи hit'ов
+            channel.write(ByteBuffer.allocate(1), HEADER_SIZE + (long) capacity * RECORD_SIZE - 1);
+            return new HitSegment(path, bucketStart, seq, channel);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось создать сегмент " + path, e);
+        }
+    }
+
+    static HitSegment open(Path path) {
+        String name = path.getFileName().toString();
+        String[] parts = name.substring(0, name.length() - EXTENSION.length()).split("-");
+        try {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new HitSegment(path, Long.parseLong(parts[0]), Long.parseLong(parts[1]), channel);
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("Не удалось открыть сегмент " + path, e);
+        }
+    }
+
+    /**
+     * Собирает сегменты одного интервала в новый файл точного размера. Файл пишется под временным именем
+     * и переименовывается, поэтому после сбоя остается либо он, либо исходные сегменты.
+     */
+    static HitSegment compact(Path dir, long bucketStart, long seq, Iterable<HitSegment> segments) {
+        int total = 0;
+        long replaces = 0;
+        for (HitSegment segment : segments) {
+            total += segment.count();
+            replaces = Math.max(replaces, segment.seq());
+        }
+
+        Path path = dir.resolve(fileName(bucketStart, seq));
+        Path tmp = dir.resolve(fileName(bucketStart, seq) + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer target = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_SIZE + (long) total * RECORD_SIZE);
+            int offset = HEADER_SIZE;
+            for (HitSegment segment : segments) {
+                int length = segment.count() * RECORD_SIZE;
+                target.put(offset, segment.buffer, HEADER_SIZE, length);
+                offset += length;
+            }
+            target.putLong(0, total);
+            target.putLong(Long.BYTES, replaces);
+            target.force();
+        } catch (IOException e) {
+            deleteQuietly(tmp);
+            throw new UncheckedIOException("Не удалось записать сегмент " + tmp, e);
+        }
+
+        try {
+            Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE);
+            return open(path);
+        } catch (IOException e) {
+            deleteQuietly(tmp);
+            throw new UncheckedIOException("Не удалось переименовать сегмент " + tmp, e);
+        }
+    }
+
+    static String fileName(long bucketStart, long seq) {
+        return bucketStart + "-" + seq + EXTENSION;
+    }
+
+    long bucketStart() {
+        return bucketStart;
+    }
+
+    long seq() {
+        return seq;
+    }
+
+    long replacesUpToSeq() {
+        return replacesUpToSeq;
+    }
+
+    int count() {
+        return count;
+    }
+
+    boolean isFull() {
+        return count == capacity;
+    }
+
+    /**
+     * Дописывает запись. Вызывается одним писателем; читатели видят запись после обновления count.
+     */
+    void append(long epochSecond, int appId, int uriId, int ipId) {
+        int index = count;
+        int offset = HEADER_SIZE + index * RECORD_SIZE;
+        buffer.putLong(offset, epochSecond);
+        buffer.putInt(offset + Long.BYTES, appId);
+        buffer.putInt(offset + Long.BYTES + Integer.BYTES, uriId);
+        buffer.putInt(offset + Long.BYTES + 2 * Integer.BYTES, ipId);
+        buffer.putLong(0, index + 1L);
+        count = index + 1;
+    }
+
+    void scan(long from, long to, RecordVisitor visitor) {
+        int limit = count;
+        for (int index = 0; index < limit; index++) {
+            int offset = HEADER_SIZE + index * RECORD_SIZE;
+            long epochSecond = buffer.getLong(offset);
+            if (epochSecond >= from && epochSecond <= to) {
+                visitor.accept(epochSecond, buffer.getInt(offset + Long.BYTES),
+                        buffer.getInt(offset + Long.BYTES + Integer.BYTES),
+                        buffer.getInt(offset + Long.BYTES + 2 * Integer.BYTES));
+            }
+        }
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    void delete() {
+        close();
+        deleteQuietly(path);
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Отображение в память остается валидным до сборки буфера, закрытие канала на него не влияет
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // Недоудаленный файл будет отброшен при следующем открытии журнала
+        }
+    }
+
+    @FunctionalInterface
+    interface RecordVisitor {
+        void accept(long epochSecond, int appId, int uriId, int ipId);
+    }
+}
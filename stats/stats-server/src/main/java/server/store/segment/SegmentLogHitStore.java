@@ -0,0 +1,317 @@
+package server.store.segment;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import model.ViewStatsDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import server.entity.EndpointHitEntity;
+import server.store.HitStore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Журнал hit'ов на диске без БД. Hit'ы дописываются в сегменты своего интервала времени (segment-duration),
+ * строки кодируются словарем. Статистика считается последовательным проходом по сегментам, пересекающим
+ * [start, end]. Закрытые интервалы периодически собираются в один сегмент точного размера.
+ * Уникальные посетители считаются точно, параметр approximate не используется.
+ */
+@Component
+@ConditionalOnProperty(name = "stats.store", havingValue = "segment-log")
+@Slf4j
+public class SegmentLogHitStore implements HitStore {
+    private final Path dir;
+    private final long segmentSeconds;
+    private final int segmentCapacity;
+    private final int retentionDays;
+    private final HitDictionary dictionary;
+    private final Clock clock;
+
+    // Начало интервала -> сегменты по возрастанию seq; списки неизменяемые и подменяются целиком под writeLock
+    private final ConcurrentSkipListMap<Long, List<HitSegment>> segments = new ConcurrentSkipListMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Set<HitSegment> dirty = new HashSet<>();
+    // 0 в заголовке сегмента означает "ничего не заменяет"
+    private long nextSeq = 1;
+
+    @Autowired
+    public SegmentLogHitStore(@Value("${stats.segment-log.dir:data/hits}") Path dir,
+                              @Value("${stats.segment-log.segment-duration:PT1H}") Duration segmentDuration,
+                              @Value("${stats.segment-log.segment-capacity:1000000}") int segmentCapacity,
+                              @Value("${stats.segment-log.retention-days:0}") int retentionDays) {
+        this(dir, segmentDuration, segmentCapacity, retentionDays, Clock.systemDefaultZone());
+    }
+
+    // clock подменяется в тестах: от него зависят закрытые интервалы и срок хранения
+    SegmentLogHitStore(Path dir, Duration segmentDuration, int segmentCapacity, int retentionDays, Clock clock) {
+        this.dir = dir;
+        this.segmentSeconds = segmentDuration.toSeconds();
+        this.segmentCapacity = segmentCapacity;
+        this.retentionDays = retentionDays;
+        this.clock = clock;
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось создать каталог журнала hit'ов " + dir, e);
+        }
+        this.dictionary = new HitDictionary(dir);
+        load();
+    }
+
+    @Override
+    public EndpointHitEntity save(EndpointHitEntity hit) {
+        writeLock.lock();
+        try {
+            append(hit);
+        } finally {
+            writeLock.unlock();
+        }
+        return hit;
+    }
+
+    @Override
+    public void saveAll(List<EndpointHitEntity> hits) {
+        writeLock.lock();
+        try {
+            hits.forEach(this::append);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public List<ViewStatsDto> findStats(LocalDateTime start, LocalDateTime end, List<String> uris, String uriPrefix,
+                                        boolean unique, boolean approximate) {
+        long from = toEpochSecond(start);
+        long to = toEpochSecond(end);
+        if (from > to) {
+            return List.of();
+        }
+
+        Set<Integer> uriIds = null;
+        if (uris != null && !uris.isEmpty()) {
+            uriIds = new HashSet<>();
+            for (String uri : uris) {
+                Integer id = dictionary.findId(uri);
+                if (id != null) {
+                    uriIds.add(id);
+                }
+            }
+            if (uriIds.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        Set<Integer> uriFilter = uriIds;
+        // Словарь общий для app, uri и ip, поэтому префикс проверяется лениво по встреченным кодам uri
+        Map<Integer, Boolean> prefixMatches = new HashMap<>();
+        Map<Long, long[]> hits = new HashMap<>();
+        Map<Long, Set<Integer>> ips = new HashMap<>();
+        for (List<HitSegment> bucket : segments.subMap(bucketStart(from), true, bucketStart(to), true).values()) {
+            for (HitSegment segment : bucket) {
+                segment.scan(from, to, (epochSecond, appId, uriId, ipId) -> {
+                    if (uriFilter != null && !uriFilter.contains(uriId)) {
+                        return;
+                    }
+                    if (uriPrefix != null && !prefixMatches.computeIfAbsent(uriId, id -> {
+                        String uri = dictionary.valueOf(id);
+                        return uri != null && uri.startsWith(uriPrefix);
+                    })) {
+                        return;
+                    }
+                    long key = ((long) appId << 32) | (uriId & 0xFFFFFFFFL);
+                    if (unique) {
+                        ips.computeIfAbsent(key, ignored -> new HashSet<>()).add(ipId);
+                    } else {
+                        hits.computeIfAbsent(key, ignored -> new long[1])[0]++;
+                    }
+                });
+            }
+        }
+
+        List<ViewStatsDto> result = new ArrayList<>();
+        if (unique) {
+            ips.forEach((key, ipIds) -> addStats(result, key, ipIds.size()));
+        } else {
+            hits.forEach((key, count) -> addStats(result, key, count[0]));
+        }
+        result.sort(Comparator.comparing(ViewStatsDto::getHits).reversed());
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${stats.segment-log.flush-interval:PT1S}")
+    public void flush() {
+        List<HitSegment> toForce;
+        writeLock.lock();
+        try {
+            toForce = List.copyOf(dirty);
+            dirty.clear();
+        } finally {
+            writeLock.unlock();
+        }
+        // Словарь первым: записи сегментов ссылаются на его коды
+        dictionary.force();
+        toForce.forEach(HitSegment::force);
+    }
+
+    @Scheduled(fixedDelayString = "${stats.segment-log.compaction-interval:PT10M}")
+    public void compact() {
+        try {
+            dropExpired();
+            long currentBucket = bucketStart(toEpochSecond(LocalDateTime.now(clock)));
+            for (Long bucketStart : List.copyOf(segments.headMap(currentBucket).keySet())) {
+                compactBucket(bucketStart);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Не удалось обслужить журнал hit'ов: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        writeLock.lock();
+        try {
+            segments.values().forEach(bucket -> bucket.forEach(segment -> {
+                segment.force();
+                segment.close();
+            }));
+            dictionary.close();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void append(EndpointHitEntity hit) {
+        long epochSecond = toEpochSecond(hit.getTimestamp());
+        int appId = dictionary.idOf(hit.getApp());
+        int uriId = dictionary.idOf(hit.getUri());
+        int ipId = dictionary.idOf(hit.getIp());
+
+        long bucketStart = bucketStart(epochSecond);
+        List<HitSegment> bucket = segments.getOrDefault(bucketStart, List.of());
+        HitSegment active = bucket.isEmpty() ? null : bucket.get(bucket.size() - 1);
+        if (active == null || active.isFull()) {
+            active = HitSegment.create(dir, bucketStart, nextSeq++, segmentCapacity);
+            List<HitSegment> extended = new ArrayList<>(bucket);
+            extended.add(active);
+            segments.put(bucketStart, List.copyOf(extended));
+        }
+        active.append(epochSecond, appId, uriId, ipId);
+        dirty.add(active);
+    }
+
+    // Закрытый интервал из нескольких сегментов или с недозаполненным файлом собирается в один сегмент.
+    // Сборка идет под writeLock: запоздавшие hit'ы этого интервала подождут
+    private void compactBucket(long bucketStart) {
+        List<HitSegment> merged;
+        writeLock.lock();
+        try {
+            merged = segments.get(bucketStart);
+            if (merged == null || merged.size() == 1 && merged.get(0).isFull()) {
+                return;
+            }
+            int total = merged.stream().mapToInt(HitSegment::count).sum();
+            if (total == 0) {
+                segments.remove(bucketStart);
+            } else {
+                segments.put(bucketStart, List.of(HitSegment.compact(dir, bucketStart, nextSeq++, merged)));
+            }
+            merged.forEach(dirty::remove);
+        } finally {
+            writeLock.unlock();
+        }
+        // Читатели, успевшие взять старый список, дочитают отображенные в память файлы и после удаления
+        merged.forEach(HitSegment::delete);
+        log.debug("Интервал {} журнала hit'ов собран из {} сегментов", bucketStart, merged.size());
+    }
+
+    private void dropExpired() {
+        if (retentionDays <= 0) {
+            return;
+        }
+        // Интервал удаляется, только если он целиком старше retention-days
+        long cutoff = toEpochSecond(LocalDateTime.now(clock).minusDays(retentionDays));
+        List<HitSegment> expired = new ArrayList<>();
+        writeLock.lock();
+        try {
+            ConcurrentNavigableMap<Long, List<HitSegment>> head = segments.headMap(bucketStart(cutoff - segmentSeconds),
+                    true);
+            head.values().forEach(expired::addAll);
+            expired.forEach(dirty::remove);
+            head.clear();
+        } finally {
+            writeLock.unlock();
+        }
+        if (!expired.isEmpty()) {
+            expired.forEach(HitSegment::delete);
+            log.info("Удалено {} сегментов журнала hit'ов старше {} дней", expired.size(), retentionDays);
+        }
+    }
+
+    private void load() {
+        Map<Long, List<HitSegment>> loaded = new TreeMap<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(HitSegment.EXTENSION + ".tmp")) {
+                    // Недописанный результат прерванной компактификации, исходные сегменты на месте
+                    Files.delete(file);
+                } else if (name.endsWith(HitSegment.EXTENSION)) {
+                    HitSegment segment = HitSegment.open(file);
+                    loaded.computeIfAbsent(segment.bucketStart(), ignored -> new ArrayList<>()).add(segment);
+                    nextSeq = Math.max(nextSeq, segment.seq() + 1);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать каталог журнала hit'ов " + dir, e);
+        }
+
+        loaded.forEach((bucketStart, bucket) -> {
+            // Сбой между переименованием собранного сегмента и удалением исходных оставляет и те, и другие
+            long replaced = bucket.stream().mapToLong(HitSegment::replacesUpToSeq).max().orElse(0);
+            List<HitSegment> live = new ArrayList<>();
+            for (HitSegment segment : bucket) {
+                if (segment.seq() <= replaced) {
+                    segment.delete();
+                } else {
+                    live.add(segment);
+                }
+            }
+            live.sort(Comparator.comparingLong(HitSegment::seq));
+            segments.put(bucketStart, List.copyOf(live));
+        });
+        log.info("Журнал hit'ов {}: {} интервалов, {} сегментов", dir, segments.size(),
+                segments.values().stream().mapToInt(List::size).sum());
+    }
+
+    private void addStats(List<ViewStatsDto> result, long key, long hits) {
+        String app = dictionary.valueOf((int) (key >>> 32));
+        String uri = dictionary.valueOf((int) key);
+        if (app != null && uri != null) {
+            result.add(new ViewStatsDto(app, uri, hits));
+        }
+    }
+
+    private long bucketStart(long epochSecond) {
+        return Math.floorDiv(epochSecond, segmentSeconds) * segmentSeconds;
+    }
+
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+}
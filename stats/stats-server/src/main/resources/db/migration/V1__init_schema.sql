@@ -0,0 +1,9 @@
+-- Схема в том виде, в котором ее создавал ddl-auto=update. Существующие БД получают baseline 0
+-- (spring.flyway.baseline-on-migrate) и проходят все миграции, начиная с этой: она идемпотентна.
+CREATE TABLE IF NOT EXISTS endpoint_hits (
+    id        BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    app       VARCHAR(255) NOT NULL,
+    uri       VARCHAR(255) NOT NULL,
+    ip        VARCHAR(255) NOT NULL,
+    timestamp TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,6 @@
+-- Точная статистика по списку uri: WHERE uri IN (...) AND timestamp BETWEEN ? AND ?.
+-- app и ip включены в индекс, чтобы COUNT(DISTINCT ip) считался по одному индексу
+CREATE INDEX IF NOT EXISTS idx_endpoint_hits_uri_timestamp ON endpoint_hits (uri, timestamp) INCLUDE (app, ip);
+
+-- Запросы без фильтра по uri и построение скетчей за интервал
+CREATE INDEX IF NOT EXISTS idx_endpoint_hits_timestamp ON endpoint_hits (timestamp);
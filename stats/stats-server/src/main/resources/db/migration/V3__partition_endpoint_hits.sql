@@ -0,0 +1,29 @@
+-- endpoint_hits становится таблицей, секционированной по дням. Дневные секции заранее создает
+-- и по сроку хранения удаляет HitPartitionService, строки вне созданных секций попадают в
+-- endpoint_hits_default и раскладываются по дням при следующем обслуживании.
+ALTER TABLE endpoint_hits RENAME TO endpoint_hits_unpartitioned;
+ALTER INDEX endpoint_hits_pkey RENAME TO endpoint_hits_unpartitioned_pkey;
+DROP INDEX IF EXISTS idx_endpoint_hits_uri_timestamp;
+DROP INDEX IF EXISTS idx_endpoint_hits_timestamp;
+
+-- Первичный ключ секционированной таблицы обязан включать ключ секционирования
+CREATE TABLE endpoint_hits (
+    id        BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    app       VARCHAR(255) NOT NULL,
+    uri       VARCHAR(255) NOT NULL,
+    ip        VARCHAR(255) NOT NULL,
+    timestamp TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+CREATE TABLE endpoint_hits_default PARTITION OF endpoint_hits DEFAULT;
+
+CREATE INDEX idx_endpoint_hits_uri_timestamp ON endpoint_hits (uri, timestamp) INCLUDE (app, ip);
+CREATE INDEX idx_endpoint_hits_timestamp ON endpoint_hits (timestamp);
+
+INSERT INTO endpoint_hits (id, app, uri, ip, timestamp)
+SELECT id, app, uri, ip, timestamp FROM endpoint_hits_unpartitioned;
+
+SELECT setval(pg_get_serial_sequence('endpoint_hits', 'id'), coalesce(max(id), 0) + 1, false) FROM endpoint_hits;
+
+DROP TABLE endpoint_hits_unpartitioned;
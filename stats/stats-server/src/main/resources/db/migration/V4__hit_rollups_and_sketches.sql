@@ -0,0 +1,21 @@
+-- Предагрегированные счетчики и скетчи уникальных ip по минутам, часам и дням.
+-- Пустые таблицы заполняются по уже сохраненным хитам при старте (HitRollupService, HitSketchService).
+CREATE TABLE IF NOT EXISTS hit_rollups (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    granularity  VARCHAR(10)  NOT NULL CHECK (granularity IN ('MINUTE', 'HOUR', 'DAY')),
+    bucket_start TIMESTAMP(6) NOT NULL,
+    app          VARCHAR(255) NOT NULL,
+    uri          VARCHAR(255) NOT NULL,
+    hits         BIGINT       NOT NULL,
+    CONSTRAINT uq_hit_rollups_bucket UNIQUE (granularity, bucket_start, app, uri)
+);
+
+CREATE TABLE IF NOT EXISTS hit_sketches (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    granularity  VARCHAR(10)  NOT NULL CHECK (granularity IN ('MINUTE', 'HOUR', 'DAY')),
+    bucket_start TIMESTAMP(6) NOT NULL,
+    app          VARCHAR(255) NOT NULL,
+    uri          VARCHAR(255) NOT NULL,
+    sketch       BYTEA        NOT NULL,
+    CONSTRAINT uq_hit_sketches_bucket UNIQUE (granularity, bucket_start, app, uri)
+);
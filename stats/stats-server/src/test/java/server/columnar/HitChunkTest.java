@@ -0,0 +1,103 @@
+package server.columnar;
+
+import model.ViewStatsDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HitChunkTest {
+    private final StringInterner apps = new StringInterner();
+    private final StringInterner uris = new StringInterner();
+
+    @Test
+    void aggregatesWholeChunkAndTimeRange() {
+        HitChunk chunk = new HitChunk(600, 1200);
+        int app = apps.intern("ewm-main-service");
+        int first = uris.intern("/events/1");
+        int second = uris.intern("/events/2");
+        chunk.append(600, app, first, 1);
+        chunk.append(700, app, first, 1);
+        chunk.append(800, app, first, 2);
+        chunk.append(1199, app, second, 1);
+
+        assertThat(aggregate(chunk, 0, 2000, false, null)).containsExactly(
+                new ViewStatsDto("ewm-main-service", "/events/1", 3L),
+                new ViewStatsDto("ewm-main-service", "/events/2", 1L));
+        assertThat(aggregate(chunk, 700, 1198, false, null))
+                .containsExactly(new ViewStatsDto("ewm-main-service", "/events/1", 2L));
+        assertThat(aggregate(chunk, 600, 1199, true, null)).containsExactly(
+                new ViewStatsDto("ewm-main-service", "/events/1", 2L),
+                new ViewStatsDto("ewm-main-service", "/events/2", 1L));
+    }
+
+    @Test
+    void uriMaskFiltersCodes() {
+        HitChunk chunk = new HitChunk(0, 600);
+        int app = apps.intern("ewm-main-service");
+        chunk.append(1, app, uris.intern("/events/1"), 1);
+        chunk.append(2, app, uris.intern("/events/2"), 1);
+        // Код за пределами маски - uri, появившийся после ее построения
+        chunk.append(3, app, uris.intern("/events/3"), 1);
+
+        assertThat(aggregate(chunk, 0, 600, false, new boolean[]{false, true}))
+                .containsExactly(new ViewStatsDto("ewm-main-service", "/events/2", 1L));
+    }
+
+    @Test
+    void readersSeePublishedPrefixWhileColumnsGrow() throws InterruptedException {
+        HitChunk chunk = new HitChunk(0, 100_000);
+        int app = apps.intern("ewm-main-service");
+        int uri = uris.intern("/events/1");
+        int total = 50_000;
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+
+        Thread reader = Thread.ofPlatform().start(() -> {
+            long previous = 0;
+            while (!done.get()) {
+                int published = chunk.size();
+                List<ViewStatsDto> stats = aggregate(chunk, 0, 100_000, false, null);
+                long hits = stats.isEmpty() ? 0 : stats.get(0).getHits();
+                // Между чтением size и колонок писатель мог дописать еще записи, но не меньше
+                if (hits < published || hits < previous || hits > total) {
+                    failure.set("size " + published + ", hits " + hits + ", before " + previous);
+                }
+                previous = hits;
+            }
+        });
+        for (int i = 0; i < total; i++) {
+            chunk.append(i, app, uri, i);
+        }
+        done.set(true);
+        reader.join();
+
+        assertThat(failure.get()).isNull();
+        assertThat(aggregate(chunk, 0, 100_000, true, null))
+                .containsExactly(new ViewStatsDto("ewm-main-service", "/events/1", (long) total));
+    }
+
+    @Test
+    void internerKeepsCodesAcrossGrowth() {
+        StringInterner interner = new StringInterner();
+        for (int i = 0; i < 3000; i++) {
+            assertThat(interner.intern("10.0.0." + i)).isEqualTo(i);
+        }
+
+        assertThat(interner.intern("10.0.0.5")).isEqualTo(5);
+        assertThat(interner.find("10.0.0.2999")).isEqualTo(2999);
+        assertThat(interner.find("unknown")).isEqualTo(-1);
+        assertThat(interner.valueOf(2999)).isEqualTo("10.0.0.2999");
+        assertThat(interner.valueOf(3000)).isNull();
+        assertThat(interner.size()).isEqualTo(3000);
+    }
+
+    private List<ViewStatsDto> aggregate(HitChunk chunk, long from, long to, boolean unique, boolean[] uriMask) {
+        HitAggregation aggregation = new HitAggregation(unique, uriMask);
+        chunk.aggregate(from, to, aggregation);
+        return aggregation.toStats(apps, uris);
+    }
+}
@@ -0,0 +1,40 @@
+package server.columnar;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongLongHashMapTest {
+    @Test
+    void keepsFirstValueForKey() {
+        LongLongHashMap map = new LongLongHashMap(4);
+
+        assertThat(map.putIfAbsent(0, 10)).isTrue();
+        assertThat(map.putIfAbsent(0, 20)).isFalse();
+
+        assertThat(map.get(0, -1)).isEqualTo(10);
+        assertThat(map.get(1, -1)).isEqualTo(-1);
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void matchesHashMapAcrossResizes() {
+        LongLongHashMap map = new LongLongHashMap(16);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100_000; i++) {
+            // Ключи пар (app, uri) x ip: старшие и младшие 32 бита
+            long key = ((long) random.nextInt(64) << 32) | random.nextInt(5_000);
+            boolean added = expected.putIfAbsent(key, (long) i) == null;
+            assertThat(map.putIfAbsent(key, i)).isEqualTo(added);
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        expected.forEach((key, value) -> assertThat(map.get(key, -1)).isEqualTo(value));
+    }
+}
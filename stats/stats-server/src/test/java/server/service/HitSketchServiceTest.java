@@ -0,0 +1,102 @@
+package server.service;
+
+import model.ViewStatsDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import server.entity.RollupGranularity;
+import server.repository.HitSketchRepository;
+import server.repository.StatsRepository;
+import server.sketch.HyperLogLog;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Оценка уникальных посетителей по отрезку, который раскладывается на дневной, часовые и сырые куски:
+ * скетчи разных бакетов должны объединиться так же, как скетч объединения их IP.
+ */
+class HitSketchServiceTest {
+    private static final int PRECISION = 14;
+    private static final String APP = "ewm-main-service";
+    private static final String URI = "/events/1";
+    private static final String RAW_ONLY_URI = "/events/2";
+
+    private final HitSketchRepository hitSketchRepository = mock(HitSketchRepository.class);
+    private final List<String> requestedSlices = new ArrayList<>();
+    private HitSketchService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new HitSketchService(hitSketchRepository, mock(StatsRepository.class),
+                mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "precision", PRECISION);
+
+        doAnswer(invocation -> {
+            RollupGranularity granularity = invocation.getArgument(0);
+            LocalDateTime from = invocation.getArgument(1);
+            HitSketchRepository.RowHandler<byte[]> handler = invocation.getArgument(5);
+            requestedSlices.add(granularity + " " + from);
+            // День и часы пересекаются по IP, объединение не должно считать их дважды
+            HyperLogLog sketch = switch (granularity) {
+                case DAY -> sketch(0, 50_000);
+                case HOUR -> from.getHour() == 23 ? sketch(40_000, 60_000) : sketch(55_000, 70_000);
+                default -> throw new IllegalStateException("Минутных скетчей нет");
+            };
+            handler.accept(APP, URI, sketch.toBytes());
+            return null;
+        }).when(hitSketchRepository).forEachSketch(any(), any(), any(), isNull(), eq("/events/%"), any());
+
+        doAnswer(invocation -> {
+            LocalDateTime from = invocation.getArgument(0);
+            HitSketchRepository.RowHandler<String> handler = invocation.getArgument(4);
+            requestedSlices.add("RAW " + from);
+            int first = from.getHour() == 22 ? 65_000 : 70_000;
+            for (int i = first; i < first + 10_000; i++) {
+                handler.accept(APP, URI, ip(i));
+            }
+            handler.accept(APP, RAW_ONLY_URI, ip(0));
+            handler.accept(APP, RAW_ONLY_URI, ip(1));
+            return null;
+        }).when(hitSketchRepository).forEachDistinctIp(any(), any(), isNull(), eq("/events/%"), any());
+    }
+
+    @Test
+    void mergesSketchesAcrossBuckets() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 22, 30);
+        LocalDateTime end = LocalDateTime.of(2024, 1, 3, 1, 30);
+
+        List<ViewStatsDto> stats = service.findUniqueStats(start, end, null, "/events/");
+
+        assertThat(requestedSlices).containsExactlyInAnyOrder(
+                "RAW 2024-01-01T22:30",
+                "HOUR 2024-01-01T23:00",
+                "DAY 2024-01-02T00:00",
+                "HOUR 2024-01-03T00:00",
+                "RAW 2024-01-03T01:00");
+        assertThat(stats).containsExactly(
+                new ViewStatsDto(APP, URI, sketch(0, 80_000).estimate()),
+                new ViewStatsDto(APP, RAW_ONLY_URI, 2L));
+    }
+
+    private static HyperLogLog sketch(int fromInclusive, int toExclusive) {
+        HyperLogLog sketch = new HyperLogLog(PRECISION);
+        for (int i = fromInclusive; i < toExclusive; i++) {
+            sketch.add(ip(i));
+        }
+        return sketch;
+    }
+
+    private static String ip(int i) {
+        return "10." + ((i >>> 16) & 0xff) + "." + ((i >>> 8) & 0xff) + "." + (i & 0xff);
+    }
+}
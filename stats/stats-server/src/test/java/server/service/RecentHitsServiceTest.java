@@ -0,0 +1,231 @@
+package server.service;
+
+import model.ViewStatsDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import server.entity.EndpointHitEntity;
+import server.repository.HitJdbcRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Передача горизонта между загрузкой из БД и записью новых hit'ов: каждый hit после горизонта
+ * должен попасть в память ровно один раз, а окна раньше горизонта - уйти в БД.
+ */
+class RecentHitsServiceTest {
+    private static final String APP = "ewm-main-service";
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 2, 12, 5);
+    // chunkStart(NOW - window) при загрузке
+    private static final LocalDateTime HORIZON = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    private final HitJdbcRepository hitJdbcRepository = mock(HitJdbcRepository.class);
+    private final List<EndpointHitEntity> database = new CopyOnWriteArrayList<>();
+    private final MutableClock clock = new MutableClock(NOW);
+    private RecentHitsService service;
+
+    @BeforeEach
+    void setUp() {
+        service = service(true);
+        doAnswer(invocation -> {
+            LocalDateTime from = invocation.getArgument(0);
+            Consumer<EndpointHitEntity> consumer = invocation.getArgument(1);
+            database.stream().filter(hit -> !hit.getTimestamp().isBefore(from)).forEach(consumer);
+            return null;
+        }).when(hitJdbcRepository).forEachHitSince(any(), any());
+    }
+
+    @Test
+    void hitsSavedBeforeLoadAreReadFromDatabase() throws InterruptedException {
+        save(hit("/events/1", HORIZON.plusHours(1)));
+        save(hit("/events/1", HORIZON.minusSeconds(1)));
+
+        assertThat(stats(HORIZON)).isEmpty();
+
+        service.warmUp();
+        awaitLoaded();
+
+        assertThat(stats(HORIZON)).contains(List.of(new ViewStatsDto(APP, "/events/1", 1L)));
+        assertThat(stats(HORIZON.minusSeconds(1))).isEmpty();
+    }
+
+    @Test
+    void writeDuringLoadWaitsForLoadAndIsCountedOnce() throws InterruptedException {
+        save(hit("/events/1", NOW.minusMinutes(1)));
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            loadStarted.countDown();
+            releaseLoad.await(5, TimeUnit.SECONDS);
+            Consumer<EndpointHitEntity> consumer = invocation.getArgument(1);
+            database.forEach(consumer);
+            return null;
+        }).when(hitJdbcRepository).forEachHitSince(any(), any());
+
+        service.warmUp();
+        assertThat(loadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        EndpointHitEntity concurrent = hit("/events/2", NOW.minusMinutes(1));
+        Thread writer = Thread.ofPlatform().start(() -> save(concurrent));
+
+        // Запись в БД ждет конца загрузки: иначе hit попал бы и в выборку загрузки, и в память
+        awaitBlocked(writer);
+        assertThat(database).doesNotContain(concurrent);
+
+        releaseLoad.countDown();
+        writer.join(5000);
+
+        assertThat(database).contains(concurrent);
+        assertThat(stats(HORIZON)).hasValueSatisfying(stats -> assertThat(stats).containsExactlyInAnyOrder(
+                new ViewStatsDto(APP, "/events/1", 1L),
+                new ViewStatsDto(APP, "/events/2", 1L)));
+    }
+
+    @Test
+    void hitsSavedAfterLoadAreCountedFromMemory() throws InterruptedException {
+        service.warmUp();
+        awaitLoaded();
+
+        save(hit("/events/1", NOW.minusHours(2)), hit("/events/1", NOW.minusHours(2)), hit("/events/2", NOW));
+        // Запоздавший hit раньше горизонта в памяти не нужен: такие окна считаются по БД
+        save(hit("/events/3", HORIZON.minusMinutes(1)));
+
+        assertThat(stats(HORIZON)).contains(List.of(
+                new ViewStatsDto(APP, "/events/1", 2L),
+                new ViewStatsDto(APP, "/events/2", 1L)));
+        assertThat(service.findStats(HORIZON, NOW, null, null, true))
+                .contains(List.of(new ViewStatsDto(APP, "/events/1", 1L), new ViewStatsDto(APP, "/events/2", 1L)));
+        assertThat(service.findStats(HORIZON, NOW, List.of("/events/2", "/events/404"), null, false))
+                .contains(List.of(new ViewStatsDto(APP, "/events/2", 1L)));
+        assertThat(service.findStats(HORIZON, NOW, List.of("/events/404"), null, false)).contains(List.of());
+        assertThat(service.findStats(HORIZON, NOW, null, "/events/2", false))
+                .contains(List.of(new ViewStatsDto(APP, "/events/2", 1L)));
+        assertThat(service.findStats(HORIZON, NOW.minusHours(1), null, null, false))
+                .contains(List.of(new ViewStatsDto(APP, "/events/1", 2L)));
+    }
+
+    @Test
+    void evictionMovesHorizonAndOlderWindowsFallBackToDatabase() throws InterruptedException {
+        service.warmUp();
+        awaitLoaded();
+        save(hit("/events/1", HORIZON.plusMinutes(30)), hit("/events/2", NOW));
+        assertThat(stats(HORIZON)).hasValueSatisfying(stats -> assertThat(stats).hasSize(2));
+
+        clock.set(NOW.plusHours(1));
+        service.evict();
+
+        // Окно с прежнего горизонта больше не полное в памяти
+        assertThat(stats(HORIZON)).isEmpty();
+        assertThat(stats(HORIZON.plusMinutes(50))).isEmpty();
+        assertThat(stats(HORIZON.plusHours(1))).contains(List.of(new ViewStatsDto(APP, "/events/2", 1L)));
+    }
+
+    @Test
+    void failedLoadKeepsStatsInDatabase() throws InterruptedException {
+        CountDownLatch loadFailed = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            loadFailed.countDown();
+            throw new IllegalStateException("db down");
+        }).when(hitJdbcRepository).forEachHitSince(any(), any());
+
+        service.warmUp();
+        assertThat(loadFailed.await(5, TimeUnit.SECONDS)).isTrue();
+        // Запись ждет, пока неудачная загрузка отпустит блокировку
+        save(hit("/events/1", NOW));
+        service.evict();
+
+        assertThat(stats(HORIZON.plusHours(23))).isEmpty();
+    }
+
+    @Test
+    void disabledServiceOnlyRunsWrite() {
+        RecentHitsService disabled = service(false);
+
+        disabled.warmUp();
+        assertThat(disabled.write(List.of(hit("/events/1", NOW)), () -> "saved")).isEqualTo("saved");
+
+        assertThat(disabled.findStats(NOW.minusMinutes(1), NOW, null, null, false)).isEmpty();
+        verifyNoInteractions(hitJdbcRepository);
+    }
+
+    private RecentHitsService service(boolean enabled) {
+        return new RecentHitsService(hitJdbcRepository, mock(PlatformTransactionManager.class), enabled,
+                Duration.ofHours(24), Duration.ofMinutes(10), clock);
+    }
+
+    private void save(EndpointHitEntity... hits) {
+        service.write(List.of(hits), () -> database.addAll(List.of(hits)));
+    }
+
+    private Optional<List<ViewStatsDto>> stats(LocalDateTime start) {
+        return service.findStats(start, clock.now(), null, null, false);
+    }
+
+    // Загрузка идет в отдельном потоке warmUp, горизонт выставляется по ее окончании
+    private void awaitLoaded() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (stats(HORIZON).isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(stats(HORIZON)).isPresent();
+    }
+
+    private static void awaitBlocked(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(thread.getState()).isEqualTo(Thread.State.WAITING);
+    }
+
+    private static EndpointHitEntity hit(String uri, LocalDateTime timestamp) {
+        return new EndpointHitEntity(null, APP, uri, "10.0.0.1", timestamp);
+    }
+
+    private static final class MutableClock extends Clock {
+        private volatile Instant instant;
+
+        private MutableClock(LocalDateTime now) {
+            set(now);
+        }
+
+        void set(LocalDateTime now) {
+            instant = now.toInstant(ZoneOffset.UTC);
+        }
+
+        LocalDateTime now() {
+            return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
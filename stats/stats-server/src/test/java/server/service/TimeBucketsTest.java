@@ -0,0 +1,90 @@
+package server.service;
+
+import org.junit.jupiter.api.Test;
+import server.entity.RollupGranularity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeBucketsTest {
+    private static final List<RollupGranularity> GRANULARITIES =
+            List.of(RollupGranularity.DAY, RollupGranularity.HOUR, RollupGranularity.MINUTE);
+
+    @Test
+    void splitCoversRangeWithLargestAlignedBuckets() {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 23, 58, 30);
+        LocalDateTime to = LocalDateTime.of(2024, 1, 3, 1, 2, 15);
+
+        List<TimeBuckets.TimeSlice> slices = TimeBuckets.split(from, to, GRANULARITIES);
+
+        assertThat(slices).containsExactly(
+                raw(from, LocalDateTime.of(2024, 1, 1, 23, 59)),
+                slice(RollupGranularity.MINUTE, LocalDateTime.of(2024, 1, 1, 23, 59),
+                        LocalDateTime.of(2024, 1, 2, 0, 0)),
+                slice(RollupGranularity.DAY, LocalDateTime.of(2024, 1, 2, 0, 0),
+                        LocalDateTime.of(2024, 1, 3, 0, 0)),
+                slice(RollupGranularity.HOUR, LocalDateTime.of(2024, 1, 3, 0, 0),
+                        LocalDateTime.of(2024, 1, 3, 1, 0)),
+                slice(RollupGranularity.MINUTE, LocalDateTime.of(2024, 1, 3, 1, 0),
+                        LocalDateTime.of(2024, 1, 3, 1, 2)),
+                raw(LocalDateTime.of(2024, 1, 3, 1, 2), to));
+        assertContiguous(slices, from, to);
+    }
+
+    @Test
+    void splitOfEmptyRangeHasNoSlices() {
+        LocalDateTime at = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+        assertThat(TimeBuckets.split(at, at, GRANULARITIES)).isEmpty();
+        assertThat(TimeBuckets.split(at, at.minusSeconds(1), GRANULARITIES)).isEmpty();
+    }
+
+    @Test
+    void splitInclusiveIncludesWholeLastSecond() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 12, 0);
+        LocalDateTime end = LocalDateTime.of(2024, 1, 1, 12, 0, 59);
+
+        assertThat(TimeBuckets.splitInclusive(start, end, GRANULARITIES))
+                .containsExactly(slice(RollupGranularity.MINUTE, start, start.plusMinutes(1)));
+    }
+
+    @Test
+    void splitInclusiveTruncatesSubSecondBounds() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 11, 59, 59, 500_000_000);
+        LocalDateTime end = LocalDateTime.of(2024, 1, 1, 12, 0, 59, 999_000_000);
+
+        // Hit в 11:59:59 раньше start и не должен попасть в ответ, hit в 12:00:59 - должен, и ровно один раз
+        assertThat(TimeBuckets.splitInclusive(start, end, GRANULARITIES))
+                .containsExactly(slice(RollupGranularity.MINUTE, LocalDateTime.of(2024, 1, 1, 12, 0),
+                        LocalDateTime.of(2024, 1, 1, 12, 1)));
+    }
+
+    @Test
+    void splitInclusiveOfSingleSecond() {
+        LocalDateTime at = LocalDateTime.of(2024, 1, 1, 12, 0, 30);
+
+        assertThat(TimeBuckets.splitInclusive(at, at.plusNanos(1), GRANULARITIES))
+                .containsExactly(raw(at, at.plusSeconds(1)));
+        assertThat(TimeBuckets.splitInclusive(at.plusNanos(1), at.plusNanos(2), GRANULARITIES)).isEmpty();
+    }
+
+    private static void assertContiguous(List<TimeBuckets.TimeSlice> slices, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime cursor = from;
+        for (TimeBuckets.TimeSlice slice : slices) {
+            assertThat(slice.from()).isEqualTo(cursor);
+            assertThat(slice.to()).isAfter(slice.from());
+            cursor = slice.to();
+        }
+        assertThat(cursor).isEqualTo(to);
+    }
+
+    private static TimeBuckets.TimeSlice slice(RollupGranularity granularity, LocalDateTime from, LocalDateTime to) {
+        return new TimeBuckets.TimeSlice(granularity, from, to);
+    }
+
+    private static TimeBuckets.TimeSlice raw(LocalDateTime from, LocalDateTime to) {
+        return new TimeBuckets.TimeSlice(null, from, to);
+    }
+}
@@ -0,0 +1,140 @@
+package server.sketch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class HyperLogLogTest {
+
+    /**
+     * Стандартная ошибка HyperLogLog - 1.04 / sqrt(m); допускаем три стандартные ошибки.
+     */
+    @ParameterizedTest
+    @CsvSource({
+            "14, 1000",
+            "14, 100000",
+            "10, 1000",
+            "10, 100000"
+    })
+    void estimateStaysWithinTheoreticalError(int precision, int cardinality) {
+        HyperLogLog sketch = sketch(precision, 0, cardinality);
+
+        assertThat(relativeError(sketch.estimate(), cardinality)).isLessThan(3 * standardError(precision));
+    }
+
+    @Test
+    void duplicatesDoNotChangeEstimate() {
+        HyperLogLog sketch = sketch(14, 0, 5000);
+        long estimate = sketch.estimate();
+
+        for (int i = 0; i < 5000; i++) {
+            sketch.add(ip(i));
+        }
+
+        assertThat(sketch.estimate()).isEqualTo(estimate);
+    }
+
+    @Test
+    void emptySketchEstimatesZero() {
+        HyperLogLog sketch = new HyperLogLog(14);
+
+        assertThat(sketch.isEmpty()).isTrue();
+        assertThat(sketch.estimate()).isZero();
+    }
+
+    @Test
+    void mergeEqualsSketchOfUnion() {
+        HyperLogLog a = sketch(14, 0, 60_000);
+        HyperLogLog b = sketch(14, 40_000, 100_000);
+        HyperLogLog union = sketch(14, 0, 100_000);
+
+        HyperLogLog merged = a.merge(b);
+
+        assertThat(merged).isSameAs(a);
+        assertThat(merged.toBytes()).isEqualTo(union.toBytes());
+        assertThat(merged.estimate()).isEqualTo(union.estimate());
+        assertThat(relativeError(merged.estimate(), 100_000)).isLessThan(3 * standardError(14));
+    }
+
+    @Test
+    void mergeIsCommutative() {
+        HyperLogLog ab = sketch(12, 0, 3000).merge(sketch(12, 2000, 9000));
+        HyperLogLog ba = sketch(12, 2000, 9000).merge(sketch(12, 0, 3000));
+
+        assertThat(ab.toBytes()).isEqualTo(ba.toBytes());
+    }
+
+    @Test
+    void foldEqualsSketchBuiltAtLowerPrecision() {
+        HyperLogLog folded = sketch(14, 0, 50_000).fold(10);
+
+        assertThat(folded.getPrecision()).isEqualTo(10);
+        assertThat(folded.toBytes()).isEqualTo(sketch(10, 0, 50_000).toBytes());
+    }
+
+    @Test
+    void mergeOfDifferentPrecisionsFoldsToLower() {
+        HyperLogLog merged = sketch(14, 0, 30_000).merge(sketch(10, 20_000, 50_000));
+
+        assertThat(merged.getPrecision()).isEqualTo(10);
+        assertThat(merged.toBytes()).isEqualTo(sketch(10, 0, 50_000).toBytes());
+    }
+
+    @Test
+    void bytesRoundTripInSparseAndDenseFormats() {
+        HyperLogLog sparse = sketch(14, 0, 100);
+        HyperLogLog dense = sketch(14, 0, 100_000);
+
+        assertThat(sparse.toBytes().length).isLessThan(dense.toBytes().length);
+        assertThat(HyperLogLog.fromBytes(sparse.toBytes()).toBytes()).isEqualTo(sparse.toBytes());
+        assertThat(HyperLogLog.fromBytes(dense.toBytes()).toBytes()).isEqualTo(dense.toBytes());
+        assertThat(HyperLogLog.fromBytes(dense.toBytes()).estimate()).isEqualTo(dense.estimate());
+    }
+
+    @Test
+    void rejectsUnknownFormat() {
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(new byte[]{9, 14, 0}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HyperLogLog(HyperLogLog.MAX_PRECISION + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void hashSpreadsIndexesEvenly() {
+        int precision = 8;
+        int[] counts = new int[1 << precision];
+        int values = 256_000;
+        for (int i = 0; i < values; i++) {
+            counts[(int) (HyperLogLog.hash(ip(i)) >>> (Long.SIZE - precision))]++;
+        }
+
+        double expected = (double) values / counts.length;
+        for (int count : counts) {
+            assertThat((double) count).isCloseTo(expected, within(expected * 0.2));
+        }
+    }
+
+    static HyperLogLog sketch(int precision, int fromInclusive, int toExclusive) {
+        HyperLogLog sketch = new HyperLogLog(precision);
+        for (int i = fromInclusive; i < toExclusive; i++) {
+            sketch.add(ip(i));
+        }
+        return sketch;
+    }
+
+    static String ip(int i) {
+        return "10." + ((i >>> 16) & 0xff) + "." + ((i >>> 8) & 0xff) + "." + (i & 0xff);
+    }
+
+    private static double standardError(int precision) {
+        return 1.04 / Math.sqrt(1 << precision);
+    }
+
+    private static double relativeError(long estimate, long actual) {
+        return Math.abs(estimate - actual) / (double) actual;
+    }
+}
@@ -0,0 +1,113 @@
+package server.store.segment;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HitDictionaryTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void codesSurviveReopen() throws IOException {
+        HitDictionary dictionary = new HitDictionary(dir);
+        int app = dictionary.idOf("ewm-main-service");
+        int uri = dictionary.idOf("/events/1");
+        assertThat(dictionary.idOf("/events/1")).isEqualTo(uri);
+        dictionary.close();
+
+        HitDictionary reopened = new HitDictionary(dir);
+
+        assertThat(reopened.findId("ewm-main-service")).isEqualTo(app);
+        assertThat(reopened.valueOf(uri)).isEqualTo("/events/1");
+        assertThat(reopened.findId("/events/2")).isNull();
+        assertThat(reopened.valueOf(uri + 1)).isNull();
+        assertThat(reopened.valueOf(-1)).isNull();
+        reopened.close();
+    }
+
+    @Test
+    void unfinishedTailIsDroppedOnOpen() throws IOException {
+        HitDictionary dictionary = new HitDictionary(dir);
+        dictionary.idOf("/events/1");
+        dictionary.close();
+        // Сбой посреди записи: длина записана, байты строки - нет
+        Files.write(dir.resolve(HitDictionary.FILE_NAME), ByteBuffer.allocate(Integer.BYTES + 2).putInt(10).array(),
+                StandardOpenOption.APPEND);
+
+        HitDictionary reopened = new HitDictionary(dir);
+
+        assertThat(reopened.findId("/events/1")).isZero();
+        assertThat(reopened.idOf("/events/2")).isEqualTo(1);
+        reopened.close();
+        try (HitDictionary afterTruncate = new HitDictionary(dir)) {
+            assertThat(afterTruncate.valueOf(1)).isEqualTo("/events/2");
+        }
+    }
+
+    @Test
+    void concurrentValueOfDuringResizeSeesEveryPublishedCode() throws Exception {
+        HitDictionary dictionary = new HitDictionary(dir);
+        int threads = 8;
+        int perThread = 2_000;
+        Map<String, Integer> codes = new ConcurrentHashMap<>();
+        List<String> failures = new CopyOnWriteArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int thread = 0; thread < threads; thread++) {
+            int offset = thread;
+            executor.execute(() -> {
+                await(start);
+                for (int i = 0; i < perThread; i++) {
+                    // Потоки частично пересекаются по строкам: один код на строку при гонке idOf
+                    String value = "/events/" + (i * threads / 2 + offset);
+                    int id = dictionary.idOf(value);
+                    Integer previous = codes.putIfAbsent(value, id);
+                    if (previous != null && previous != id) {
+                        failures.add(value + ": " + previous + " и " + id);
+                    }
+                    if (!value.equals(dictionary.valueOf(id))) {
+                        failures.add(value + " -> " + id + " -> " + dictionary.valueOf(id));
+                    }
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(failures).isEmpty();
+        // Массив значений расширялся с 1024 несколько раз
+        assertThat(codes.size()).isGreaterThan(4 * 1024);
+        assertThat(codes.values()).doesNotHaveDuplicates();
+        dictionary.close();
+
+        HitDictionary reopened = new HitDictionary(dir);
+        codes.forEach((value, id) -> assertThat(reopened.valueOf(id)).isEqualTo(value));
+        reopened.close();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package server.store.segment;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HitSegmentTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void reopenedSegmentKeepsRecordsAndHeader() {
+        HitSegment segment = HitSegment.create(dir, 3600, 7, 4);
+        segment.append(3600, 1, 2, 3);
+        segment.append(3700, 1, 2, 4);
+        segment.force();
+        segment.close();
+
+        HitSegment reopened = HitSegment.open(dir.resolve(HitSegment.fileName(3600, 7)));
+
+        assertThat(reopened.bucketStart()).isEqualTo(3600);
+        assertThat(reopened.seq()).isEqualTo(7);
+        assertThat(reopened.replacesUpToSeq()).isZero();
+        assertThat(reopened.count()).isEqualTo(2);
+        assertThat(reopened.isFull()).isFalse();
+        assertThat(scan(reopened, 0, Long.MAX_VALUE)).containsExactly("3600:1:2:3", "3700:1:2:4");
+        reopened.close();
+    }
+
+    @Test
+    void scanIsInclusiveOnBothEnds() {
+        HitSegment segment = HitSegment.create(dir, 0, 1, 4);
+        segment.append(10, 1, 1, 1);
+        segment.append(20, 1, 1, 2);
+        segment.append(30, 1, 1, 3);
+
+        assertThat(scan(segment, 10, 20)).containsExactly("10:1:1:1", "20:1:1:2");
+        assertThat(scan(segment, 21, 29)).isEmpty();
+        segment.close();
+    }
+
+    @Test
+    void compactedSegmentHasExactSizeAndReplacedSeq() {
+        HitSegment first = HitSegment.create(dir, 0, 1, 2);
+        first.append(1, 1, 1, 1);
+        first.append(2, 1, 1, 2);
+        HitSegment second = HitSegment.create(dir, 0, 4, 2);
+        second.append(3, 1, 1, 3);
+
+        HitSegment compacted = HitSegment.compact(dir, 0, 5, List.of(first, second));
+
+        assertThat(compacted.count()).isEqualTo(3);
+        assertThat(compacted.isFull()).isTrue();
+        assertThat(compacted.replacesUpToSeq()).isEqualTo(4);
+        assertThat(scan(compacted, 0, 10)).containsExactly("1:1:1:1", "2:1:1:2", "3:1:1:3");
+        assertThat(dir.resolve(HitSegment.fileName(0, 5) + ".tmp")).doesNotExist();
+        first.close();
+        second.close();
+        compacted.close();
+    }
+
+    @Test
+    void deletedSegmentStaysReadableForHoldersOfOldList() {
+        // Так компактификация удаляет исходные сегменты, пока их дочитывают запросы
+        HitSegment segment = HitSegment.create(dir, 0, 1, 2);
+        segment.append(1, 1, 1, 1);
+
+        segment.delete();
+
+        assertThat(dir.resolve(HitSegment.fileName(0, 1))).doesNotExist();
+        assertThat(scan(segment, 0, 10)).containsExactly("1:1:1:1");
+    }
+
+    private static List<String> scan(HitSegment segment, long from, long to) {
+        List<String> records = new ArrayList<>();
+        segment.scan(from, to, (epochSecond, appId, uriId, ipId) ->
+                records.add(epochSecond + ":" + appId + ":" + uriId + ":" + ipId));
+        return records;
+    }
+}
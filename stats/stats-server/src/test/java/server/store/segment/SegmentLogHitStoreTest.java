@@ -0,0 +1,282 @@
+package server.store.segment;
+
+import model.ViewStatsDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import server.entity.EndpointHitEntity;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Журнал hit'ов на временном каталоге: запись, компактификация, повторное открытие и восстановление
+ * после сбоя посреди компактификации.
+ */
+class SegmentLogHitStoreTest {
+    private static final String APP = "ewm-main-service";
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 6, 1, 0, 0);
+    private static final LocalDateTime START = DAY.minusYears(1);
+    private static final LocalDateTime END = DAY.plusYears(1);
+    private static final Duration HOUR = Duration.ofHours(1);
+    // Сегменты по 10 записей, чтобы интервал состоял из нескольких файлов
+    private static final int CAPACITY = 10;
+
+    @TempDir
+    Path dir;
+
+    private final List<SegmentLogHitStore> opened = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (SegmentLogHitStore store : opened) {
+            store.close();
+        }
+    }
+
+    @Test
+    void countsSurviveCompactionAndReopen() throws IOException {
+        SegmentLogHitStore store = open(0, DAY.plusDays(1));
+        store.saveAll(hits("/events/1", DAY.plusHours(1), 25, 5));
+        store.saveAll(hits("/events/2", DAY.plusHours(2), 12, 12));
+        store.save(hit("/users/1", "10.0.0.1", DAY.plusHours(2)));
+
+        assertStats(store);
+        assertThat(segmentFiles(DAY.plusHours(1))).hasSize(3);
+
+        store.compact();
+
+        assertStats(store);
+        assertThat(segmentFiles(DAY.plusHours(1))).hasSize(1);
+        assertThat(segmentFiles(DAY.plusHours(2))).hasSize(1);
+
+        store.flush();
+        store.close();
+        opened.remove(store);
+        SegmentLogHitStore reopened = open(0, DAY.plusDays(1));
+
+        assertStats(reopened);
+        // Новые hit'ы после открытия не перезаписывают файлы с уже занятыми seq
+        reopened.save(hit("/events/1", "10.0.0.99", DAY.plusHours(1)));
+        assertThat(reopened.findStats(START, END, List.of("/events/1"), null, false, false))
+                .containsExactly(new ViewStatsDto(APP, "/events/1", 26L));
+    }
+
+    @Test
+    void openIntervalIsNotCompacted() throws IOException {
+        SegmentLogHitStore store = open(0, DAY.plusHours(1).plusMinutes(30));
+        store.saveAll(hits("/events/1", DAY.plusHours(1), 25, 5));
+
+        store.compact();
+
+        assertThat(segmentFiles(DAY.plusHours(1))).hasSize(3);
+        assertThat(total(store)).isEqualTo(25);
+    }
+
+    @Test
+    void queryIsLimitedToInterval() {
+        SegmentLogHitStore store = open(0, DAY.plusDays(1));
+        store.save(hit("/events/1", "10.0.0.1", DAY.plusHours(1).minusSeconds(1)));
+        store.save(hit("/events/1", "10.0.0.1", DAY.plusHours(1)));
+        store.save(hit("/events/1", "10.0.0.1", DAY.plusHours(2)));
+
+        assertThat(store.findStats(DAY.plusHours(1), DAY.plusHours(2), null, null, false, false))
+                .containsExactly(new ViewStatsDto(APP, "/events/1", 2L));
+        assertThat(store.findStats(DAY.plusHours(1), DAY.plusHours(2).minusSeconds(1), null, null, false, false))
+                .containsExactly(new ViewStatsDto(APP, "/events/1", 1L));
+        assertThat(store.findStats(DAY.plusHours(2), DAY.plusHours(1), null, null, false, false)).isEmpty();
+        assertThat(store.findStats(START, END, List.of("/events/404"), null, false, false)).isEmpty();
+    }
+
+    @Test
+    void leftoverTmpFileIsDeletedOnOpen() throws IOException {
+        SegmentLogHitStore store = open(0, DAY.plusDays(1));
+        store.saveAll(hits("/events/1", DAY.plusHours(1), 25, 5));
+        store.flush();
+        store.close();
+        opened.remove(store);
+        // Сбой до переименования: исходные сегменты на месте, рядом недописанный результат
+        Path tmp = dir.resolve(HitSegment.fileName(epochSecond(DAY.plusHours(1)), 100) + ".tmp");
+        Files.write(tmp, new byte[]{1, 2, 3});
+
+        SegmentLogHitStore reopened = open(0, DAY.plusDays(1));
+
+        assertThat(tmp).doesNotExist();
+        assertThat(total(reopened)).isEqualTo(25);
+    }
+
+    @Test
+    void segmentsReplacedByCompactionAreDeletedOnOpen() throws IOException {
+        SegmentLogHitStore store = open(0, DAY.plusDays(1));
+        store.saveAll(hits("/events/1", DAY.plusHours(1), 25, 5));
+        store.saveAll(hits("/events/2", DAY.plusHours(2), 5, 5));
+        store.flush();
+        store.close();
+        opened.remove(store);
+
+        // Сбой после переименования собранного сегмента, но до удаления исходных
+        List<Path> sources = segmentFiles(DAY.plusHours(1));
+        assertThat(sources).hasSize(3);
+        List<HitSegment> segments = sources.stream().map(HitSegment::open).toList();
+        long seq = segments.stream().mapToLong(HitSegment::seq).max().orElseThrow() + 100;
+        HitSegment compacted = HitSegment.compact(dir, epochSecond(DAY.plusHours(1)), seq, segments);
+        compacted.close();
+        segments.forEach(HitSegment::close);
+        assertThat(segmentFiles(DAY.plusHours(1))).hasSize(4);
+
+        SegmentLogHitStore reopened = open(0, DAY.plusDays(1));
+
+        assertThat(segmentFiles(DAY.plusHours(1)))
+                .containsExactly(dir.resolve(HitSegment.fileName(epochSecond(DAY.plusHours(1)), seq)));
+        assertThat(reopened.findStats(START, END, null, null, false, false)).containsExactly(
+                new ViewStatsDto(APP, "/events/1", 25L),
+                new ViewStatsDto(APP, "/events/2", 5L));
+        // seq после открытия продолжается за собранным сегментом
+        reopened.save(hit("/events/1", "10.0.0.1", DAY.plusHours(1)));
+        assertThat(total(reopened)).isEqualTo(31);
+    }
+
+    @Test
+    void readersDuringCompactionSeeEveryHitOnce() throws InterruptedException {
+        SegmentLogHitStore store = open(0, DAY.plusDays(2));
+        int buckets = 24;
+        int perBucket = 95;
+        for (int hour = 0; hour < buckets; hour++) {
+            store.saveAll(hits("/events/" + hour, DAY.plusHours(hour), perBucket, 7));
+        }
+        long expected = (long) buckets * perBucket;
+
+        AtomicBoolean stop = new AtomicBoolean();
+        List<Object> failures = new CopyOnWriteArrayList<>();
+        CountDownLatch started = new CountDownLatch(4);
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread reader = new Thread(() -> {
+                started.countDown();
+                try {
+                    while (!stop.get()) {
+                        long total = total(store);
+                        if (total != expected) {
+                            failures.add(total);
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    failures.add(e);
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+        started.await();
+
+        store.compact();
+        stop.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertThat(failures).isEmpty();
+        assertThat(total(store)).isEqualTo(expected);
+        for (int hour = 0; hour < buckets; hour++) {
+            assertThat(segmentFiles(DAY.plusHours(hour))).hasSize(1);
+        }
+    }
+
+    @Test
+    void dropsOnlyIntervalsEntirelyOlderThanRetention() throws IOException {
+        // Граница хранения - 2024-06-01T12:30: интервал [12:00, 13:00) пересекает ее и остается целиком
+        SegmentLogHitStore store = open(1, DAY.plusDays(1).plusHours(12).plusMinutes(30));
+        store.save(hit("/events/1", "10.0.0.1", DAY.plusHours(10)));
+        store.save(hit("/events/2", "10.0.0.1", DAY.plusHours(12).minusSeconds(1)));
+        store.save(hit("/events/3", "10.0.0.1", DAY.plusHours(12)));
+        store.save(hit("/events/4", "10.0.0.1", DAY.plusHours(12).plusMinutes(29)));
+        store.save(hit("/events/5", "10.0.0.1", DAY.plusHours(13)));
+
+        store.compact();
+
+        assertThat(segmentFiles(DAY.plusHours(10))).isEmpty();
+        assertThat(segmentFiles(DAY.plusHours(11))).isEmpty();
+        assertThat(store.findStats(START, END, null, null, false, false))
+                .extracting(ViewStatsDto::getUri)
+                .containsExactlyInAnyOrder("/events/3", "/events/4", "/events/5");
+
+        store.flush();
+        store.close();
+        opened.remove(store);
+        assertThat(open(1, DAY.plusDays(1).plusHours(12).plusMinutes(30))
+                .findStats(START, END, null, null, false, false))
+                .extracting(ViewStatsDto::getUri)
+                .containsExactlyInAnyOrder("/events/3", "/events/4", "/events/5");
+    }
+
+    private void assertStats(SegmentLogHitStore store) {
+        assertThat(store.findStats(START, END, null, null, false, false)).containsExactly(
+                new ViewStatsDto(APP, "/events/1", 25L),
+                new ViewStatsDto(APP, "/events/2", 12L),
+                new ViewStatsDto(APP, "/users/1", 1L));
+        assertThat(store.findStats(START, END, null, null, true, false)).containsExactly(
+                new ViewStatsDto(APP, "/events/2", 12L),
+                new ViewStatsDto(APP, "/events/1", 5L),
+                new ViewStatsDto(APP, "/users/1", 1L));
+        assertThat(store.findStats(START, END, null, "/events/", false, false)).containsExactly(
+                new ViewStatsDto(APP, "/events/1", 25L),
+                new ViewStatsDto(APP, "/events/2", 12L));
+        assertThat(store.findStats(START, END, List.of("/events/2", "/events/404"), null, false, false))
+                .containsExactly(new ViewStatsDto(APP, "/events/2", 12L));
+    }
+
+    private SegmentLogHitStore open(int retentionDays, LocalDateTime now) {
+        Clock clock = Clock.fixed(now.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        SegmentLogHitStore store = new SegmentLogHitStore(dir, HOUR, CAPACITY, retentionDays, clock);
+        opened.add(store);
+        return store;
+    }
+
+    private List<Path> segmentFiles(LocalDateTime bucketStart) {
+        String prefix = epochSecond(bucketStart) + "-";
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(prefix) && name.endsWith(HitSegment.EXTENSION);
+            }).sorted().toList();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long total(SegmentLogHitStore store) {
+        return store.findStats(START, END, null, null, false, false).stream()
+                .mapToLong(ViewStatsDto::getHits)
+                .sum();
+    }
+
+    // count hit'ов в пределах одного часа с ips различными IP по кругу
+    private static List<EndpointHitEntity> hits(String uri, LocalDateTime from, int count, int ips) {
+        List<EndpointHitEntity> hits = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            hits.add(hit(uri, "10.0.0." + i % ips, from.plusSeconds(i)));
+        }
+        return hits;
+    }
+
+    private static EndpointHitEntity hit(String uri, String ip, LocalDateTime timestamp) {
+        return new EndpointHitEntity(null, APP, uri, ip, timestamp);
+    }
+
+    private static long epochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+}